@@ -0,0 +1,84 @@
+package com.sap.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.batch.TripBatchProcessor;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.GeocodeCache;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.model.dto.TripResultDTO;
+import com.sap.service.DistanceEstimator;
+import com.sap.utility.AppConstants;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory batches through {@link TripBatchProcessor} against the in-process ORS stub, reported
+ * as batches per second. Each batch visits {@code batchSize / 4} distinct cities; {@code cache=cold}
+ * clears both caches at the start of every measured call rather than in a per-invocation setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private ExecutorService executor;
+    private GeocodeCache geocodeCache;
+    private DistanceCache distanceCache;
+    private TripBatchProcessor batchProcessor;
+    private List<Co2CalculateRequestDTO> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = OrsFixtures.geocodeExecutor();
+        geocodeCache = new GeocodeCache(100_000, 1440, 60);
+        distanceCache = new DistanceCache(100_000, 1440, true);
+        batchProcessor = new TripBatchProcessor(OrsFixtures.service(geocodeCache, distanceCache, executor), distanceCache,
+                DistanceEstimator.disabled(), Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), executor, 1000);
+
+        batch = OrsFixtures.trips(batchSize, Math.max(2, batchSize / 4), AppConstants.DIESEL_CAR_MEDIUM);
+        batchProcessor.process(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<TripResultDTO> batch() {
+        clearIfCold();
+        return batchProcessor.process(batch);
+    }
+
+    private void clearIfCold() {
+        if ("cold".equals(cache)) {
+            geocodeCache.clear();
+            distanceCache.clear();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sap.benchmark;
+
+import com.sap.cache.DistanceCache;
+import com.sap.cache.GeocodeCache;
+import com.sap.model.TransportMethod;
+import com.sap.service.impl.Co2CalculatorServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recomputing CO2 for {@code size} trips: one scalar {@code calculateCo2Kg} call per trip against
+ * the bulk primitive-array API (fork-join above its parallel threshold).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkCalculationBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private ExecutorService executor;
+    private Co2CalculatorServiceImpl service;
+    private double[] distances;
+    private int[] ordinals;
+    private String[] methods;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        executor = OrsFixtures.geocodeExecutor();
+        service = OrsFixtures.service(new GeocodeCache(10, 1, 1), new DistanceCache(10, 1, true), executor);
+        Random random = new Random(42);
+        distances = new double[size];
+        ordinals = new int[size];
+        methods = new String[size];
+        out = new double[size];
+        int methodCount = TransportMethod.getAllMethods().size();
+        for (int i = 0; i < size; i++) {
+            distances[i] = random.nextDouble() * 1500;
+            ordinals[i] = random.nextInt(methodCount);
+            methods[i] = TransportMethod.method(ordinals[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        for (int i = 0; i < size; i++) {
+            out[i] = service.calculateCo2Kg(distances[i], methods[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] bulk() {
+        service.calculateCo2Kg(distances, ordinals, out);
+        return out;
+    }
+}
@@ -0,0 +1,108 @@
+package com.sap.benchmark;
+
+import com.sap.cache.DistanceCache;
+import com.sap.cache.GeocodeCache;
+import com.sap.model.TransportMethod;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.service.DistanceEstimator;
+import com.sap.service.impl.Co2CalculatorServiceImpl;
+import com.sap.utility.AppConstants;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pure in-memory hot paths: the emission lookup, the CO2 formula, request validation and
+ * great-circle distance estimation (per pair, reported per pair for the bulk variant).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculationBenchmark {
+
+    private ExecutorService executor;
+    private Co2CalculatorServiceImpl service;
+    private Validator validator;
+    private Co2CalculateRequestDTO validRequest;
+    private Co2CalculateRequestDTO invalidRequest;
+    private final double distanceKm = 289.27;
+    private static final int PAIRS = 1000;
+    private final DistanceEstimator estimator = DistanceEstimator.disabled();
+    private final double[] startLon = new double[PAIRS];
+    private final double[] startLat = new double[PAIRS];
+    private final double[] endLon = new double[PAIRS];
+    private final double[] endLat = new double[PAIRS];
+    private final double[] estimates = new double[PAIRS];
+
+    @Setup
+    public void setUp() {
+        executor = OrsFixtures.geocodeExecutor();
+        service = OrsFixtures.service(new GeocodeCache(10, 1, 1), new DistanceCache(10, 1, true), executor);
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validRequest = OrsFixtures.trips(1, 2, AppConstants.DIESEL_CAR_MEDIUM).get(0);
+        invalidRequest = OrsFixtures.trips(1, 2, "rocket").get(0);
+        Random random = new Random(42);
+        for (int i = 0; i < PAIRS; i++) {
+            startLon[i] = 5 + random.nextDouble() * 10;
+            startLat[i] = 47 + random.nextDouble() * 8;
+            endLon[i] = 5 + random.nextDouble() * 10;
+            endLat[i] = 47 + random.nextDouble() * 8;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Integer emissionRate() {
+        return TransportMethod.getEmissionRate(AppConstants.DIESEL_CAR_MEDIUM);
+    }
+
+    @Benchmark
+    public double calculateCo2Kg() {
+        return service.calculateCo2Kg(distanceKm, AppConstants.DIESEL_CAR_MEDIUM);
+    }
+
+    @Benchmark
+    public Set<?> validateValidRequest() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<?> validateInvalidRequest() {
+        return validator.validate(invalidRequest);
+    }
+
+    @Benchmark
+    public double haversineKm() {
+        return DistanceEstimator.haversineKm(startLon[0], startLat[0], endLon[0], endLat[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double[] estimateBulk() {
+        estimator.estimateKm(startLon, startLat, endLon, endLat, estimates);
+        return estimates;
+    }
+}
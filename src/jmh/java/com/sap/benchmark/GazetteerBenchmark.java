@@ -0,0 +1,111 @@
+package com.sap.benchmark;
+
+import com.sap.cache.Gazetteer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline gazetteer lookups against a synthetic GeoNames-style file of {@code places} populated
+ * places, and the one-off cost of loading it. The index size is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GazetteerBenchmark {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"200000"})
+    public int places;
+
+    private Path file;
+    private Gazetteer gazetteer;
+    private String exact;
+    private String prefix;
+    private String typo;
+    private String unknown;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("gazetteer", ".txt");
+        Random random = new Random(42);
+        String[] names = new String[places];
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < places; i++) {
+                StringBuilder name = new StringBuilder();
+                int length = 5 + random.nextInt(8);
+                for (int k = 0; k < length; k++) {
+                    name.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+                }
+                names[i] = name.toString();
+                writer.write(String.join("\t", Integer.toString(i), names[i], names[i], "",
+                        Double.toString(-90 + random.nextDouble() * 180), Double.toString(-180 + random.nextDouble() * 360),
+                        "P", "PPL", "XX", "", "", "", "", "", Integer.toString(random.nextInt(1_000_000)), "", "0", "UTC", "2024-01-01"));
+                writer.newLine();
+            }
+        }
+
+        gazetteer = new Gazetteer(file.toString(), 0, false, Integer.MAX_VALUE, 4, 1);
+        exact = names[places / 2];
+        prefix = names[places / 3].substring(0, 4);
+        typo = names[places / 4].substring(0, 3) + names[places / 4].substring(4);
+        unknown = "zzzzzzzzzzzzzzzzzzzz";
+        System.out.printf("%n%d names, ~%d KiB%n", gazetteer.size(), gazetteer.memoryBytes() / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Gazetteer.Match exactMatch() {
+        return gazetteer.find(exact);
+    }
+
+    @Benchmark
+    public Gazetteer.Match prefixMatch() {
+        return gazetteer.find(prefix);
+    }
+
+    @Benchmark
+    public Gazetteer.Match fuzzyMatch() {
+        return gazetteer.find(typo);
+    }
+
+    @Benchmark
+    public Gazetteer.Match miss() {
+        return gazetteer.find(unknown);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int load() {
+        return new Gazetteer(file.toString(), 0, false, Integer.MAX_VALUE, 4, 1).size();
+    }
+}
@@ -0,0 +1,156 @@
+package com.sap.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.client.OrsResilience;
+import com.sap.client.OrsThrottle;
+import com.sap.metrics.Co2Metrics;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.service.DistanceEstimator;
+import com.sap.service.impl.Co2CalculatorServiceImpl;
+import com.sap.utility.NamedThreadFactory;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Canned OpenRouteService responses and an in-process {@link RestTemplate} that serves them, so
+ * benchmarks exercise the real request, streaming-parse and cache code without touching the network.
+ * Every city name geocodes to its own stable coordinates, and matrix responses are generated to the
+ * requested size, so cache behaviour matches a real run.
+ */
+public final class OrsFixtures {
+
+    public static final String GEOCODE_URL = "http://ors.local/geocode/search";
+    public static final String MATRIX_URL = "http://ors.local/v2/matrix/driving-car";
+
+    private static final String GEOCODE_TEMPLATE = resource("fixtures/geocode-search.json");
+    private static final byte[] MATRIX_2X2 = resource("fixtures/matrix-2x2.json").getBytes(StandardCharsets.UTF_8);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<Long, byte[]> MATRIX_BODIES = new ConcurrentHashMap<>();
+
+    private OrsFixtures() {
+    }
+
+    public static byte[] geocodeResponse(String city) {
+        double[] coordinates = coordinatesOf(city);
+        return GEOCODE_TEMPLATE
+                .replace("__LON__", Double.toString(coordinates[0]))
+                .replace("__LAT__", Double.toString(coordinates[1]))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] matrixResponse(int rows, int cols) {
+        if (rows == 2 && cols == 2) {
+            return MATRIX_2X2;
+        }
+        return MATRIX_BODIES.computeIfAbsent(((long) rows << 32) | cols, key -> {
+            StringBuilder json = new StringBuilder("{\"distances\":[");
+            for (int i = 0; i < rows; i++) {
+                json.append(i == 0 ? "[" : ",[");
+                for (int j = 0; j < cols; j++) {
+                    json.append(j == 0 ? "" : ",").append(i == j ? 0.0 : 1000.0 * (50 + (i * 31 + j * 17) % 700) + 0.37);
+                }
+                json.append(']');
+            }
+            return json.append("],\"metadata\":{\"service\":\"matrix\",\"engine\":{\"version\":\"8.0.0\"}}}")
+                    .toString().getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * Distinct synthetic city names; trip {@code i} goes from city {@code i % cities} to the next one.
+     */
+    public static List<Co2CalculateRequestDTO> trips(int count, int cities, String transportationMethod) {
+        List<Co2CalculateRequestDTO> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Co2CalculateRequestDTO trip = new Co2CalculateRequestDTO();
+            trip.setStart("City " + (i % cities));
+            trip.setEnd("City " + ((i + 1) % cities));
+            trip.setTransportationMethod(transportationMethod);
+            trips.add(trip);
+        }
+        return trips;
+    }
+
+    public static RestTemplate restTemplate() {
+        return new RestTemplate(new StubRequestFactory());
+    }
+
+    public static ExecutorService geocodeExecutor() {
+        return Executors.newFixedThreadPool(16, new NamedThreadFactory("geocode"));
+    }
+
+    public static Co2CalculatorServiceImpl service(GeocodeCache geocodeCache, DistanceCache distanceCache, ExecutorService executor) {
+        return new Co2CalculatorServiceImpl(restTemplate(), MAPPER, "token", GEOCODE_URL, MATRIX_URL, new StaticMessageSource(),
+                geocodeCache, GeocodeStore.disabled(), distanceCache, 50, 3500, executor, 15000, Co2Metrics.standalone(), OrsThrottle.unlimited(), OrsResilience.disabled(),
+                Gazetteer.disabled(), DistanceEstimator.disabled());
+    }
+
+    private static double[] coordinatesOf(String city) {
+        int hash = city.hashCode();
+        return new double[]{5.0 + Math.floorMod(hash, 10_000) / 1_000.0, 47.0 + Math.floorMod(hash >>> 8, 8_000) / 1_000.0};
+    }
+
+    private static String resource(String name) {
+        try (InputStream in = OrsFixtures.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class StubRequestFactory implements ClientHttpRequestFactory {
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new MockClientHttpRequest(httpMethod, uri) {
+                @Override
+                protected ClientHttpResponse executeInternal() throws IOException {
+                    byte[] body = HttpMethod.GET.equals(httpMethod) ? geocode(uri) : matrix(getBodyAsBytes());
+                    return new MockClientHttpResponse(body, HttpStatus.OK);
+                }
+            };
+        }
+
+        private static byte[] geocode(URI uri) {
+            String text = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("text");
+            return geocodeResponse(URLDecoder.decode(text, StandardCharsets.UTF_8));
+        }
+
+        private static byte[] matrix(byte[] request) throws IOException {
+            JsonNode body = MAPPER.readTree(request);
+            int locations = body.path("locations").size();
+            int rows = body.has("sources") ? body.get("sources").size() : locations;
+            int cols = body.has("destinations") ? body.get("destinations").size() : locations;
+            return matrixResponse(rows, cols);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sap.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.sap.client.OrsResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming extraction from canned geocode and matrix responses, without any HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParsingBenchmark {
+
+    private final JsonFactory factory = new JsonFactory();
+    private byte[] geocodeBody;
+
+    @State(Scope.Benchmark)
+    public static class Matrix {
+
+        @Param({"2", "10", "49"})
+        public int size;
+
+        private byte[] body;
+
+        @Setup
+        public void setUp() {
+            body = OrsFixtures.matrixResponse(size, size);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        geocodeBody = OrsFixtures.geocodeResponse("Berlin");
+    }
+
+    @Benchmark
+    public double[] parseGeocode() throws IOException {
+        try (JsonParser parser = factory.createParser(geocodeBody)) {
+            parser.nextToken();
+            return OrsResponseParser.readFirstFeatureCoordinates(parser);
+        }
+    }
+
+    @Benchmark
+    public double[][] parseMatrix(Matrix matrix) throws IOException {
+        try (JsonParser parser = factory.createParser(matrix.body)) {
+            parser.nextToken();
+            return OrsResponseParser.readDistances(parser, matrix.size, matrix.size);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.sap.benchmark;
+
+import com.sap.load.OrsStubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first result of a one-trip CLI run: from starting a new JVM until the trip's result line
+ * is printed, with OpenRouteService served by the in-process stub.
+ * <ul>
+ *     <li>{@code default}: the application as shipped</li>
+ *     <li>{@code lazy}: the fast-start profile (lazy beans) with C1 only</li>
+ *     <li>{@code aot-cds}: additionally the AOT-processed context and the AppCDS archive; build them
+ *     first with {@code mvn -B -Pfast-start package} and select it with {@code -p variant=aot-cds}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String RESULT_PREFIX = "Your trip caused";
+    private static final Path FAST_START_DIR = Paths.get("target", "fast-start");
+
+    @Param({"default", "lazy"})
+    public String variant;
+
+    private OrsStubServer stub;
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stub = new OrsStubServer(0, 0, 0, 2);
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        switch (variant) {
+            case "default" -> command.addAll(List.of("-cp", System.getProperty("java.class.path"), "com.sap.SapApplication"));
+            case "lazy" -> command.addAll(List.of("-XX:TieredStopAtLevel=1", "-Dspring.profiles.active=fast-start",
+                    "-cp", System.getProperty("java.class.path"), "com.sap.SapApplication"));
+            case "aot-cds" -> {
+                Path archive = FAST_START_DIR.resolve("sap.jsa");
+                Path jar = FAST_START_DIR.resolve("sap-0.0.1-SNAPSHOT.jar");
+                if (!Files.exists(archive) || !Files.exists(jar)) {
+                    throw new IllegalStateException("Run mvn -B -Pfast-start package first; missing " + archive + " or " + jar);
+                }
+                command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-XX:TieredStopAtLevel=1",
+                        "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-start", "-jar", jar.toString()));
+            }
+            default -> throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+        command.addAll(List.of("--start", "Berlin", "--end", "Hamburg", "--transportation-method", "bus-default"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public String firstResult() throws Exception {
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("OPEN_ROUTE_API_GEOCODE", stub.geocodeUrl());
+        builder.environment().put("OPEN_ROUTE_API_MATRIX", stub.matrixUrl());
+        builder.environment().put("GEOCODE_STORE_ENABLED", "false");
+        Process process = builder.start();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    return line;
+                }
+            }
+            throw new IllegalStateException("No result from " + String.join(" ", command) + ", exit code " + process.waitFor());
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sap.benchmark;
+
+import com.sap.cache.DistanceCache;
+import com.sap.cache.GeocodeCache;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.service.impl.Co2CalculatorServiceImpl;
+import com.sap.utility.AppConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-trip calculation through the service against the in-process ORS stub. {@code cache=warm}
+ * measures the all-hit path; {@code cache=cold} clears the geocode and distance caches at the start of
+ * every call, so both cities and the distance go through request, parse and insert. The clearing is
+ * part of the measured work; it is far cheaper than the lookups, and a per-invocation setup would
+ * distort microsecond-scale timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TripBenchmark {
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private ExecutorService executor;
+    private GeocodeCache geocodeCache;
+    private DistanceCache distanceCache;
+    private Co2CalculatorServiceImpl service;
+    private Co2CalculateRequestDTO trip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        executor = OrsFixtures.geocodeExecutor();
+        geocodeCache = new GeocodeCache(100_000, 1440, 60);
+        distanceCache = new DistanceCache(100_000, 1440, true);
+        service = OrsFixtures.service(geocodeCache, distanceCache, executor);
+        trip = OrsFixtures.trips(1, 2, AppConstants.DIESEL_CAR_MEDIUM).get(0);
+        service.getDistanceKm(trip.getStart(), trip.getEnd());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public double singleTrip() throws Exception {
+        clearIfCold();
+        double distanceKm = service.getDistanceKm(trip.getStart(), trip.getEnd());
+        return service.calculateCo2Kg(distanceKm, trip.getTransportationMethod());
+    }
+
+    private void clearIfCold() {
+        if ("cold".equals(cache)) {
+            geocodeCache.clear();
+            distanceCache.clear();
+        }
+    }
+}
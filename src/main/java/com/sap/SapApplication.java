@@ -1,30 +1,80 @@
 package com.sap;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.batch.AggregateField;
+import com.sap.batch.AggregationReport;
+import com.sap.batch.BatchSummary;
+import com.sap.batch.CacheWarmer;
+import com.sap.batch.TripAggregator;
+import com.sap.batch.TripBatchProcessor;
+import com.sap.batch.TripRecordReader;
+import com.sap.batch.WarmupSummary;
+import com.sap.cli.CliOptions;
+import com.sap.cli.TripRepl;
+import com.sap.metrics.Co2Metrics;
 import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.model.dto.ItineraryRequestDTO;
+import com.sap.model.dto.ItineraryResponseDTO;
 import com.sap.service.Co2CalculatorService;
 import com.sap.utility.AppConstants;
 import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @SpringBootApplication
 public class SapApplication implements CommandLineRunner {
 
-    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Autowired
+    private Validator validator;
 
     @Autowired
     private Co2CalculatorService co2Service;
 
+    // Resolved on use, so with lazy initialization a single-trip run never builds them.
+    @Autowired
+    private ObjectProvider<TripBatchProcessor> batchProcessor;
+
+    @Autowired
+    private ObjectProvider<TripRepl> tripRepl;
+
+    @Autowired
+    private ObjectProvider<TripAggregator> aggregator;
+
+    @Autowired
+    private ObjectProvider<CacheWarmer> cacheWarmer;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Co2Metrics metrics;
+
     public static void main(String[] args) {
         SpringApplication app = new SpringApplication(SapApplication.class);
-        app.setWebApplicationType(WebApplicationType.NONE);
+        app.setWebApplicationType(CliOptions.parse(args).containsKey(AppConstants.SERVER)
+                ? WebApplicationType.SERVLET
+                : WebApplicationType.NONE);
         app.run(args);
     }
 
@@ -35,7 +85,50 @@ public class SapApplication implements CommandLineRunner {
             return;
         }
 
-        Co2CalculateRequestDTO request = parseArgs(args);
+        Map<String, String> options = CliOptions.parse(args);
+
+        WarmupSummary warmup = null;
+        if (options.containsKey(AppConstants.WARM_UP)) {
+            warmup = runWarmUp(options.get(AppConstants.WARM_UP));
+            if (warmup == null || !CliOptions.hasTask(options)) {
+                if (warmup != null && options.containsKey(AppConstants.METRICS)) {
+                    System.err.print(metrics.summary());
+                }
+                return;
+            }
+        }
+
+        if (options.containsKey(AppConstants.SERVER)) {
+            return;
+        }
+
+        if (options.containsKey(AppConstants.REPL)) {
+            runRepl();
+            printServedWarm(warmup);
+            return;
+        }
+
+        if (options.containsKey(AppConstants.AGGREGATE)) {
+            runAggregate(options.get(AppConstants.AGGREGATE), options.get(AppConstants.GROUP_BY), options.get(AppConstants.OUTPUT));
+            return;
+        }
+
+        if (options.containsKey(AppConstants.INPUT)) {
+            runBatch(options.get(AppConstants.INPUT), options.get(AppConstants.OUTPUT));
+            printServedWarm(warmup);
+            return;
+        }
+
+        if (CliOptions.isItinerary(options)) {
+            runItinerary(CliOptions.toItinerary(args, options));
+            printServedWarm(warmup);
+            if (options.containsKey(AppConstants.METRICS)) {
+                System.err.print(metrics.summary());
+            }
+            return;
+        }
+
+        Co2CalculateRequestDTO request = CliOptions.toRequest(options);
 
         if (!validateRequest(request)) {
             printUsage();
@@ -50,24 +143,122 @@ public class SapApplication implements CommandLineRunner {
         } catch (Exception e) {
             System.err.println("Error calculating CO2: " + e.getMessage());
         }
+        printServedWarm(warmup);
+
+        if (options.containsKey(AppConstants.METRICS)) {
+            System.err.print(metrics.summary());
+        }
+    }
+
+
+    private void runBatch(String input, String output) {
+        if (input == null) {
+            printUsage();
+            return;
+        }
+
+        Path inputPath = Paths.get(input);
+        TripRecordReader.Format format = TripRecordReader.Format.fromFileName(input);
+
+        try (TripRecordReader reader = new TripRecordReader(Files.newBufferedReader(inputPath, StandardCharsets.UTF_8), format, mapper);
+             Writer writer = output != null
+                     ? Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+
+            BatchSummary summary = batchProcessor.getObject().process(reader, writer);
+            System.err.println(summary);
+            System.err.print(metrics.summary());
+        } catch (IOException e) {
+            System.err.println("Error processing batch: " + e.getMessage());
+        }
     }
 
 
-    private Co2CalculateRequestDTO parseArgs(String[] args) {
-        Co2CalculateRequestDTO request = new Co2CalculateRequestDTO();
+    private void runAggregate(String input, String groupBy, String output) {
+        if (input == null) {
+            printUsage();
+            return;
+        }
+
+        TripRecordReader.Format format = TripRecordReader.Format.fromFileName(input);
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+             Writer writer = output != null
+                     ? Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+
+            AggregationReport report = aggregator.getObject().aggregate(reader, format, AggregateField.parseGroupBy(groupBy));
+            report.write(writer);
+            System.err.println(report);
+            report.getErrors().forEach(System.err::println);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error aggregating trips: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error processing trips: " + e.getMessage());
+        }
+    }
+
 
-        for (int i = 0; i < args.length; i++) {
-            String key = args[i].replace("--", "").trim();
-            String value = (i + 1 < args.length && !args[i + 1].startsWith("--")) ? args[++i] : null;
+    private void runItinerary(ItineraryRequestDTO request) {
+        Set<ConstraintViolation<ItineraryRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            violations.forEach(v -> System.err.println(v.getMessage()));
+            printUsage();
+            return;
+        }
 
-            switch (key) {
-                case AppConstants.START -> request.setStart(value);
-                case AppConstants.END -> request.setEnd(value);
-                case AppConstants.TRANSPORTATION_METHOD -> request.setTransportationMethod(value);
+        try {
+            ItineraryResponseDTO itinerary = co2Service.calculateItinerary(request.getStops(), request.getTransportationMethods());
+            List<Co2CalculateResponseDTO> legs = itinerary.getLegs();
+            for (int i = 0; i < legs.size(); i++) {
+                Co2CalculateResponseDTO leg = legs.get(i);
+                System.out.printf("Leg %d: %s -> %s (%s, %.1f km) caused %.1f kg of CO2-equivalent.%n", i + 1,
+                        leg.getStart(), leg.getEnd(), leg.getTransportationMethod(), leg.getDistanceKm(), leg.getCo2Kg());
             }
+            System.out.printf("Your trip caused %.1f kg of CO2-equivalent.%n", itinerary.getCo2Kg());
+        } catch (Exception e) {
+            System.err.println("Error calculating CO2: " + e.getMessage());
+        }
+    }
+
+
+    private WarmupSummary runWarmUp(String history) {
+        if (history == null) {
+            printUsage();
+            return null;
         }
 
-        return request;
+        TripRecordReader.Format format = TripRecordReader.Format.fromFileName(history);
+
+        try (TripRecordReader reader = new TripRecordReader(Files.newBufferedReader(Paths.get(history), StandardCharsets.UTF_8), format, mapper)) {
+            WarmupSummary summary = cacheWarmer.getObject().warmUp(reader);
+            System.err.println(summary);
+            return summary;
+        } catch (IOException e) {
+            System.err.println("Error reading trip history: " + e.getMessage());
+            return null;
+        }
+    }
+
+
+    private void printServedWarm(WarmupSummary warmup) {
+        if (warmup != null) {
+            System.err.println(cacheWarmer.getObject().servedWarm(warmup));
+        }
+    }
+
+
+    private void runRepl() {
+        System.err.println("Ready. Enter one trip per line (JSON or --start/--end/--transportation-method), 'quit' to exit.");
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            long requests = tripRepl.getObject().run(in, out);
+            System.err.println("Answered " + requests + " requests.");
+            System.err.print(metrics.summary());
+        } catch (IOException e) {
+            System.err.println("Error reading requests: " + e.getMessage());
+        }
     }
 
 
@@ -84,7 +275,13 @@ public class SapApplication implements CommandLineRunner {
 
 
     private void printUsage() {
-        System.err.println("Usage: --start <City> --end <City> --transportation-method <method>");
+        System.err.println("Usage: --start <City> --end <City> --transportation-method <method> [--metrics]");
+        System.err.println("       --start <City> [--via <City> ...] --end <City> --transportation-method <method>[,<method per leg> ...]");
+        System.err.println("       --input <trips.csv|trips.jsonl> [--output <results.jsonl>]");
+        System.err.println("       --aggregate <trips.csv|trips.jsonl> [--group-by employee,cost-center,month,transportation-method] [--output <report.csv>]");
+        System.err.println("       --repl");
+        System.err.println("       --warm-up <history.csv|history.jsonl> before any of the above, or on its own");
+        System.err.println("       --server");
         System.err.println("Example: --start Berlin --end Hamburg --transportation-method diesel-car-small");
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.sap.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Dimensions a trip report can be grouped by. {@code --group-by} takes a comma-separated list of
+ * groupings, each one field or several joined with {@code +}, e.g. {@code employee,cost-center+month}.
+ */
+public enum AggregateField {
+    EMPLOYEE("employee", Set.of("employee")),
+    COST_CENTER("cost-center", Set.of("costcenter")),
+    MONTH("month", Set.of("date", "month")),
+    TRANSPORTATION_METHOD("transportation-method", Set.of("transportationmethod"));
+
+    public static final String DEFAULT_GROUP_BY = "employee,cost-center,month,transportation-method";
+
+    private final String option;
+    private final Set<String> columns;
+
+    AggregateField(String option, Set<String> columns) {
+        this.option = option;
+        this.columns = columns;
+    }
+
+    public String option() {
+        return option;
+    }
+
+    public static List<List<AggregateField>> parseGroupBy(String spec) {
+        List<List<AggregateField>> groupings = new ArrayList<>();
+        for (String grouping : (spec == null ? DEFAULT_GROUP_BY : spec).split(",")) {
+            List<AggregateField> fields = new ArrayList<>();
+            for (String name : grouping.split("\\+")) {
+                fields.add(fromOption(name.trim()));
+            }
+            groupings.add(fields);
+        }
+        return groupings;
+    }
+
+    /**
+     * Maps a CSV header or JSON property name to its field, ignoring case, dashes and underscores;
+     * {@code null} for columns that are not a grouping dimension.
+     */
+    static AggregateField fromColumn(String normalizedName) {
+        for (AggregateField field : values()) {
+            if (field.columns.contains(normalizedName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    static String normalizeColumn(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace("-", "").replace("_", "");
+    }
+
+    private static AggregateField fromOption(String name) {
+        for (AggregateField field : values()) {
+            if (field.option.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown group-by field: " + name
+                + " (use employee, cost-center, month or transportation-method)");
+    }
+}
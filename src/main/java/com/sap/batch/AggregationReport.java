@@ -0,0 +1,63 @@
+package com.sap.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+@Getter
+@AllArgsConstructor
+public class AggregationReport {
+
+    private final List<GroupTotals> groupings;
+    private final long succeeded;
+    private final long failed;
+    /** The first failed rows in input order, as {@code line N: message}. */
+    private final List<String> errors;
+    private final long elapsedMillis;
+
+    public long getTotal() {
+        return succeeded + failed;
+    }
+
+    public GroupTotals grouping(String name) {
+        return groupings.stream().filter(totals -> totals.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    /**
+     * Writes one CSV row per group: {@code group_by,group,trips,distance_km,co2_kg}, groupings in
+     * {@code --group-by} order and groups sorted by key. Composite keys join their values with {@code |}.
+     */
+    public void write(Writer out) throws IOException {
+        out.write("group_by,group,trips,distance_km,co2_kg");
+        out.write(System.lineSeparator());
+        for (GroupTotals totals : groupings) {
+            String name = totals.getName();
+            totals.forEachSorted((key, trips, distanceKm, co2Kg) -> {
+                out.write(name);
+                out.write(',');
+                out.write(csv(key));
+                out.write(String.format(Locale.ROOT, ",%d,%.3f,%.3f", trips, distanceKm, co2Kg));
+                out.write(System.lineSeparator());
+            });
+        }
+        out.flush();
+    }
+
+    @Override
+    public String toString() {
+        int groups = groupings.stream().mapToInt(GroupTotals::size).sum();
+        return String.format("Aggregated %d trips (%d succeeded, %d failed) into %d groups in %d ms",
+                getTotal(), succeeded, failed, groups, elapsedMillis);
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
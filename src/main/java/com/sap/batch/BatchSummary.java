@@ -0,0 +1,30 @@
+package com.sap.batch;
+
+import lombok.Getter;
+
+@Getter
+public class BatchSummary {
+    private long total;
+    private long succeeded;
+    private long failed;
+    private long elapsedMillis;
+
+    void recordSuccess() {
+        total++;
+        succeeded++;
+    }
+
+    void recordFailure() {
+        total++;
+        failed++;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Processed %d trips (%d succeeded, %d failed) in %d ms", total, succeeded, failed, elapsedMillis);
+    }
+}
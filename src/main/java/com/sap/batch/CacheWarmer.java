@@ -0,0 +1,191 @@
+package com.sap.batch;
+
+import com.sap.cache.CacheStats;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.client.TokenBucket;
+import com.sap.service.Co2CalculatorService;
+import com.sap.utility.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Prefetches the cities and city pairs most likely to be asked for next, ranked from a file of
+ * past trips by {@link TripHistory}. Lookups go through the regular
+ * {@link Co2CalculatorService#getCoordinates} and {@link Co2CalculatorService#getDistanceKm} paths,
+ * so stores, throttles and circuit breakers apply. Lookups that would reach the provider are
+ * started at no more than {@code WARMUP_RATE_PER_MINUTE} to leave provider budget for real traffic;
+ * those answered by the caches, the geocode store or the gazetteer run unpaced. Prefetched entries are
+ * marked warm, so {@link #servedWarm} can tell how many later lookups they answered.
+ * Each run uses its own {@code WARMUP_CONCURRENCY} threads: a pair lookup blocks on geocode tasks
+ * queued on the service's geocode executor, so it must not occupy a thread of that pool itself.
+ */
+@Slf4j
+@Component
+public class CacheWarmer {
+
+    private final Co2CalculatorService co2Service;
+    private final GeocodeCache geocodeCache;
+    private final DistanceCache distanceCache;
+    private final GeocodeStore geocodeStore;
+    private final Gazetteer gazetteer;
+    private final int concurrency;
+    private final int topCities;
+    private final int topPairs;
+    private final double halfLifeTrips;
+    private final double ratePerMinute;
+
+    public CacheWarmer(Co2CalculatorService co2Service,
+                       GeocodeCache geocodeCache,
+                       DistanceCache distanceCache,
+                       GeocodeStore geocodeStore,
+                       Gazetteer gazetteer,
+                       @Value("${WARMUP_CONCURRENCY:4}") int concurrency,
+                       @Value("${WARMUP_TOP_CITIES:200}") int topCities,
+                       @Value("${WARMUP_TOP_PAIRS:100}") int topPairs,
+                       @Value("${WARMUP_HALF_LIFE_TRIPS:10000}") double halfLifeTrips,
+                       @Value("${WARMUP_RATE_PER_MINUTE:60}") double ratePerMinute) {
+        this.co2Service = co2Service;
+        this.geocodeCache = geocodeCache;
+        this.distanceCache = distanceCache;
+        this.geocodeStore = geocodeStore;
+        this.gazetteer = gazetteer;
+        this.concurrency = concurrency;
+        this.topCities = topCities;
+        this.topPairs = topPairs;
+        this.halfLifeTrips = halfLifeTrips;
+        this.ratePerMinute = ratePerMinute;
+    }
+
+    /**
+     * Ranks the trips in {@code history} (oldest first) and prefetches the top cities, then the top
+     * pairs, so pair lookups find their cities already cached. Trips that cannot be parsed are skipped.
+     */
+    public WarmupSummary warmUp(TripRecordReader history) throws InterruptedIOException {
+        long start = System.nanoTime();
+        TripHistory ranking = new TripHistory(halfLifeTrips);
+        while (history.hasNext()) {
+            TripRecord record = history.next();
+            if (record.getError() == null
+                    && StringUtils.isNotBlank(record.getRequest().getStart())
+                    && StringUtils.isNotBlank(record.getRequest().getEnd())) {
+                ranking.add(record.getRequest().getStart(), record.getRequest().getEnd());
+            }
+        }
+
+        TokenBucket pace = new TokenBucket(ratePerMinute, 1);
+        List<String> cities = ranking.topCities(topCities);
+        List<String[]> pairs = ranking.topPairs(topPairs);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new NamedThreadFactory("warm-up"));
+        int citiesWarmed;
+        int pairsWarmed;
+        try {
+            citiesWarmed = count(prefetch(pace, executor, cities.stream()
+                    .map(city -> new Lookup(isLocal(city), () -> warmCity(city))).toList()));
+            pairsWarmed = count(prefetch(pace, executor, pairs.stream()
+                    .map(pair -> new Lookup(isCached(pair[0], pair[1]), () -> warmPair(pair[0], pair[1]))).toList()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CacheStats geocode = geocodeCache.stats();
+        CacheStats distance = distanceCache.stats();
+        return new WarmupSummary(ranking.getTrips(), citiesWarmed, cities.size(), pairsWarmed, pairs.size(),
+                cities.size() - citiesWarmed + pairs.size() - pairsWarmed, (System.nanoTime() - start) / 1_000_000,
+                geocode.getHits() + geocode.getMisses(), geocodeCache.warmHits(),
+                distance.getHits() + distance.getMisses(), distanceCache.warmHits());
+    }
+
+    /**
+     * How many geocode and distance cache lookups since {@code warmup} were answered by prefetched entries.
+     */
+    public String servedWarm(WarmupSummary warmup) {
+        CacheStats geocode = geocodeCache.stats();
+        CacheStats distance = distanceCache.stats();
+        long geocodeLookups = geocode.getHits() + geocode.getMisses() - warmup.getGeocodeLookups();
+        long distanceLookups = distance.getHits() + distance.getMisses() - warmup.getDistanceLookups();
+        return "Served warm: " + share("geocode", geocodeCache.warmHits() - warmup.getGeocodeWarmHits(), geocodeLookups)
+                + ", " + share("distance", distanceCache.warmHits() - warmup.getDistanceWarmHits(), distanceLookups);
+    }
+
+    private List<CompletableFuture<Boolean>> prefetch(TokenBucket pace, ExecutorService executor, List<Lookup> lookups) throws InterruptedIOException {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(lookups.size());
+        try {
+            for (Lookup lookup : lookups) {
+                if (lookup.local()) {
+                    results.add(CompletableFuture.completedFuture(lookup.warm().get()));
+                    continue;
+                }
+                TimeUnit.NANOSECONDS.sleep(pace.reserve(Long.MAX_VALUE));
+                results.add(CompletableFuture.supplyAsync(lookup.warm(), executor));
+            }
+        } catch (InterruptedException e) {
+            results.forEach(result -> result.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Warm-up interrupted");
+        }
+        return results;
+    }
+
+    private boolean isLocal(String city) {
+        return geocodeCache.peek(city) != null || geocodeStore.get(city) != null || gazetteer.get(city) != null;
+    }
+
+    private boolean isCached(String start, String end) {
+        double[] startCoords = geocodeCache.peek(start);
+        double[] endCoords = geocodeCache.peek(end);
+        return startCoords != null && endCoords != null && distanceCache.contains(startCoords, endCoords);
+    }
+
+    private boolean warmCity(String city) {
+        try {
+            co2Service.getCoordinates(city);
+            geocodeCache.markWarm(city);
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Warm-up lookup failed for {}: {}", city, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean warmPair(String start, String end) {
+        try {
+            co2Service.getDistanceKm(start, end);
+            distanceCache.markWarm(co2Service.getCoordinates(start), co2Service.getCoordinates(end));
+            geocodeCache.markWarm(start);
+            geocodeCache.markWarm(end);
+            return true;
+        } catch (Exception e) {
+            log.debug("Warm-up lookup failed for {} to {}: {}", start, end, e.getMessage());
+            return false;
+        }
+    }
+
+    private static int count(List<CompletableFuture<Boolean>> results) {
+        return (int) results.stream().filter(CompletableFuture::join).count();
+    }
+
+    private static String share(String cache, long warm, long total) {
+        return String.format("%d of %d %s lookups (%.1f%%)", warm, total, cache, total == 0 ? 0.0 : 100.0 * warm / total);
+    }
+
+    /**
+     * A prefetch step; {@code local} ones do not reach the provider, so they skip the pacing.
+     */
+    private record Lookup(boolean local, Supplier<Boolean> warm) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.sap.batch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Trip count, distance and CO₂ sums per group for one grouping. Sums live in primitive arrays
+ * indexed by group, so memory grows with the number of groups and adding a trip allocates nothing
+ * once its group exists. Not thread-safe: every partition keeps its own instance and they are merged
+ * at the end.
+ */
+public class GroupTotals {
+
+    static final String KEY_SEPARATOR = "|";
+
+    private final List<AggregateField> fields;
+    private final Map<String, Integer> index = new HashMap<>();
+    private String[] keys = new String[16];
+    private long[] trips = new long[16];
+    private double[] distanceKm = new double[16];
+    private double[] co2Kg = new double[16];
+
+    public GroupTotals(List<AggregateField> fields) {
+        this.fields = List.copyOf(fields);
+    }
+
+    public String getName() {
+        return fields.stream().map(AggregateField::option).collect(Collectors.joining("+"));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long trips(String key) {
+        Integer i = index.get(key);
+        return i == null ? 0 : trips[i];
+    }
+
+    public double distanceKm(String key) {
+        Integer i = index.get(key);
+        return i == null ? 0 : distanceKm[i];
+    }
+
+    public double co2Kg(String key) {
+        Integer i = index.get(key);
+        return i == null ? 0 : co2Kg[i];
+    }
+
+    /**
+     * The group key of a trip whose field values are indexed by {@link AggregateField#ordinal()}.
+     */
+    String key(String[] values) {
+        if (fields.size() == 1) {
+            return values[fields.get(0).ordinal()];
+        }
+        StringBuilder key = new StringBuilder();
+        for (AggregateField field : fields) {
+            if (key.length() > 0) {
+                key.append(KEY_SEPARATOR);
+            }
+            key.append(values[field.ordinal()]);
+        }
+        return key.toString();
+    }
+
+    void add(String key, long count, double distance, double co2) {
+        Integer i = index.get(key);
+        if (i == null) {
+            i = append(key);
+        }
+        trips[i] += count;
+        distanceKm[i] += distance;
+        co2Kg[i] += co2;
+    }
+
+    void merge(GroupTotals other) {
+        for (int i = 0; i < other.size(); i++) {
+            add(other.keys[i], other.trips[i], other.distanceKm[i], other.co2Kg[i]);
+        }
+    }
+
+    /**
+     * Calls {@code consumer} once per group in key order.
+     */
+    void forEachSorted(GroupConsumer consumer) throws IOException {
+        Integer[] order = new Integer[size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+        for (int i : order) {
+            consumer.accept(keys[i], trips[i], distanceKm[i], co2Kg[i]);
+        }
+    }
+
+    private int append(String key) {
+        int i = index.size();
+        if (i == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            trips = Arrays.copyOf(trips, capacity);
+            distanceKm = Arrays.copyOf(distanceKm, capacity);
+            co2Kg = Arrays.copyOf(co2Kg, capacity);
+        }
+        keys[i] = key;
+        index.put(key, i);
+        return i;
+    }
+
+    @FunctionalInterface
+    interface GroupConsumer {
+        void accept(String key, long trips, double distanceKm, double co2Kg) throws IOException;
+    }
+}
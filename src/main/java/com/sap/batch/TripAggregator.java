@@ -0,0 +1,331 @@
+package com.sap.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.exception.ApiException;
+import com.sap.service.Co2CalculatorService;
+import com.sap.utility.NamedThreadFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sums trips, distance and CO₂ per group over a trip file of any size. Every row carries its
+ * distance ({@code distance-km}), so no provider is called; CO₂ comes from
+ * {@link Co2CalculatorService#calculateCo2Kg(double, String)}. The file is read in blocks of
+ * {@code AGGREGATE_BLOCK_LINES} lines that {@code AGGREGATE_THREADS} workers parse and sum into
+ * their own {@link GroupTotals}, merged once the input is exhausted. At most two blocks per worker
+ * are held at a time, so memory is bounded by the number of groups, not the number of rows.
+ */
+@Component
+public class TripAggregator {
+
+    static final int MAX_ERRORS = 10;
+
+    private static final String DISTANCE_COLUMN = "distancekm";
+    private static final int DISTANCE = AggregateField.values().length;
+    private static final int IGNORED = -1;
+
+    private final Co2CalculatorService co2Service;
+    private final ObjectMapper mapper;
+    private final int threads;
+    private final int blockLines;
+
+    public TripAggregator(Co2CalculatorService co2Service,
+                          ObjectMapper mapper,
+                          @Value("${AGGREGATE_THREADS:0}") int threads,
+                          @Value("${AGGREGATE_BLOCK_LINES:4096}") int blockLines) {
+        this.co2Service = co2Service;
+        this.mapper = mapper;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.blockLines = blockLines;
+    }
+
+    public AggregationReport aggregate(BufferedReader in, TripRecordReader.Format format,
+                                       List<List<AggregateField>> groupBy) throws IOException {
+        long start = System.nanoTime();
+        Set<AggregateField> required = EnumSet.of(AggregateField.TRANSPORTATION_METHOD);
+        groupBy.forEach(required::addAll);
+
+        long lineNumber = 0;
+        int[] columns = null;
+        if (format == TripRecordReader.Format.CSV) {
+            String header;
+            do {
+                header = in.readLine();
+                lineNumber++;
+            } while (header != null && StringUtils.isBlank(header));
+            if (header == null) {
+                return new AggregationReport(List.of(new Parser(null, groupBy, required).totals), 0, 0, List.of(), 0);
+            }
+            columns = parseHeader(header, required);
+        }
+
+        int maxInFlight = threads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ConcurrentLinkedQueue<Parser> partitions = new ConcurrentLinkedQueue<>();
+        int[] csvColumns = columns;
+        ThreadLocal<Parser> partition = ThreadLocal.withInitial(() -> {
+            Parser parser = new Parser(csvColumns, groupBy, required);
+            partitions.add(parser);
+            return parser;
+        });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new NamedThreadFactory("aggregate"));
+
+        try {
+            List<String> block = new ArrayList<>(blockLines);
+            long blockStart = lineNumber + 1;
+            String line;
+            while ((line = in.readLine()) != null && failure.get() == null) {
+                lineNumber++;
+                block.add(line);
+                if (block.size() == blockLines) {
+                    submit(workers, inFlight, partition, failure, block, blockStart);
+                    block = new ArrayList<>(blockLines);
+                    blockStart = lineNumber + 1;
+                }
+            }
+            if (!block.isEmpty()) {
+                submit(workers, inFlight, partition, failure, block, blockStart);
+            }
+            // Holding every permit means every submitted block has been summed.
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Aggregation interrupted");
+        } finally {
+            workers.shutdownNow();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+
+        Parser merged = new Parser(columns, groupBy, required);
+        partitions.forEach(merged::merge);
+        return new AggregationReport(List.of(merged.totals), merged.succeeded, merged.failed,
+                new ArrayList<>(merged.errors.values()), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void submit(ExecutorService workers, Semaphore inFlight, ThreadLocal<Parser> partition,
+                        AtomicReference<Throwable> failure, List<String> block, long firstLine) throws InterruptedException {
+        inFlight.acquire();
+        workers.execute(() -> {
+            try {
+                partition.get().addBlock(block, firstLine);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Maps each CSV column to its field slot, {@link #DISTANCE} or {@link #IGNORED}. Fails when a column
+     * every row needs is missing, rather than reporting each row as failed.
+     */
+    private static int[] parseHeader(String header, Set<AggregateField> required) {
+        List<String> names = TripRecordReader.splitCsv(header);
+        int[] columns = new int[names.size()];
+        Set<AggregateField> missing = EnumSet.copyOf(required);
+        boolean distance = false;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = slot(AggregateField.normalizeColumn(names.get(i)));
+            if (columns[i] == DISTANCE) {
+                distance = true;
+            } else if (columns[i] != IGNORED) {
+                missing.remove(AggregateField.values()[columns[i]]);
+            }
+        }
+        if (!distance) {
+            throw new IllegalArgumentException("Missing column: distance-km");
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing column: " + missing.iterator().next().option());
+        }
+        return columns;
+    }
+
+    private static int slot(String normalizedName) {
+        if (DISTANCE_COLUMN.equals(normalizedName)) {
+            return DISTANCE;
+        }
+        AggregateField field = AggregateField.fromColumn(normalizedName);
+        return field == null ? IGNORED : field.ordinal();
+    }
+
+    /**
+     * Month key {@code yyyy-MM} of an ISO date or date-time, or {@code null} if it is not one.
+     */
+    static String month(String date) {
+        if (date.length() < 7 || date.charAt(4) != '-' || (date.length() > 7 && date.charAt(7) != '-')) {
+            return null;
+        }
+        for (int i : new int[]{0, 1, 2, 3, 5, 6}) {
+            if (date.charAt(i) < '0' || date.charAt(i) > '9') {
+                return null;
+            }
+        }
+        int month = (date.charAt(5) - '0') * 10 + (date.charAt(6) - '0');
+        return month >= 1 && month <= 12 ? date.substring(0, 7) : null;
+    }
+
+    /**
+     * One partition: parses rows and sums them into its own totals. Used by one worker thread at a time.
+     */
+    private final class Parser {
+
+        private final int[] columns;
+        private final Set<AggregateField> required;
+        private final GroupTotals[] totals;
+        private final String[] values = new String[DISTANCE + 1];
+        private final TreeMap<Long, String> errors = new TreeMap<>();
+        private long succeeded;
+        private long failed;
+
+        Parser(int[] columns, List<List<AggregateField>> groupBy, Set<AggregateField> required) {
+            this.columns = columns;
+            this.required = required;
+            this.totals = groupBy.stream().map(GroupTotals::new).toArray(GroupTotals[]::new);
+        }
+
+        void addBlock(List<String> block, long firstLine) {
+            for (int i = 0; i < block.size(); i++) {
+                String line = block.get(i);
+                if (StringUtils.isNotBlank(line)) {
+                    String error = addRow(line);
+                    if (error == null) {
+                        succeeded++;
+                    } else {
+                        fail(firstLine + i, error);
+                    }
+                }
+            }
+        }
+
+        void merge(Parser other) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i].merge(other.totals[i]);
+            }
+            succeeded += other.succeeded;
+            failed += other.failed;
+            other.errors.forEach((line, error) -> {
+                errors.put(line, error);
+                if (errors.size() > MAX_ERRORS) {
+                    errors.pollLastEntry();
+                }
+            });
+        }
+
+        private String addRow(String line) {
+            String error = columns != null ? readCsv(line) : readJson(line);
+            if (error != null) {
+                return error;
+            }
+
+            String distanceValue = values[DISTANCE];
+            if (StringUtils.isBlank(distanceValue)) {
+                return "Missing distance-km";
+            }
+            double distanceKm;
+            try {
+                distanceKm = Double.parseDouble(distanceValue.trim());
+            } catch (NumberFormatException e) {
+                distanceKm = Double.NaN;
+            }
+            if (!(distanceKm >= 0) || Double.isInfinite(distanceKm)) {
+                return "Invalid distance-km: " + distanceValue;
+            }
+
+            for (AggregateField field : required) {
+                String value = values[field.ordinal()];
+                if (StringUtils.isBlank(value)) {
+                    return "Missing " + field.option();
+                }
+                values[field.ordinal()] = value.trim();
+            }
+            if (required.contains(AggregateField.MONTH)) {
+                String month = month(values[AggregateField.MONTH.ordinal()]);
+                if (month == null) {
+                    return "Invalid date: " + values[AggregateField.MONTH.ordinal()];
+                }
+                values[AggregateField.MONTH.ordinal()] = month;
+            }
+
+            double co2Kg;
+            try {
+                co2Kg = co2Service.calculateCo2Kg(distanceKm, values[AggregateField.TRANSPORTATION_METHOD.ordinal()]);
+            } catch (ApiException e) {
+                return e.getMessage();
+            }
+            for (GroupTotals groupTotals : totals) {
+                groupTotals.add(groupTotals.key(values), 1, distanceKm, co2Kg);
+            }
+            return null;
+        }
+
+        private String readCsv(String line) {
+            Arrays.fill(values, null);
+            List<String> row = TripRecordReader.splitCsv(line);
+            for (int i = 0; i < columns.length && i < row.size(); i++) {
+                if (columns[i] != IGNORED) {
+                    values[columns[i]] = row.get(i);
+                }
+            }
+            return null;
+        }
+
+        private String readJson(String line) {
+            Arrays.fill(values, null);
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return "Invalid JSON record: " + e.getOriginalMessage();
+            }
+            if (node == null || !node.isObject()) {
+                return "Invalid JSON record: not an object";
+            }
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                int slot = slot(AggregateField.normalizeColumn(field.getKey()));
+                if (slot != IGNORED && !field.getValue().isNull()) {
+                    values[slot] = field.getValue().asText();
+                }
+            }
+            return null;
+        }
+
+        private void fail(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_ERRORS || line < errors.lastKey()) {
+                errors.put(line, "line " + line + ": " + error);
+                if (errors.size() > MAX_ERRORS) {
+                    errors.pollLastEntry();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.sap.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.GeocodeCache;
+import com.sap.exception.ApiException;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.model.dto.TripResultDTO;
+import com.sap.service.Co2CalculatorService;
+import com.sap.service.DistanceEstimator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Processes a stream of trips in chunks. Within a chunk every distinct city is geocoded once,
+ * fanned out over the shared geocode executor, and all uncached distances are fetched with as
+ * few multi-location matrix requests as the provider limits allow. Only the origin and destination
+ * combinations that some trip asks for are requested, not their full cross product. Failures are reported per
+ * trip in the output and never abort the run. In {@code DISTANCE_ESTIMATE_ONLY} mode the matrix
+ * holds estimates, which are not cached.
+ */
+@Component
+public class TripBatchProcessor {
+
+    private final Co2CalculatorService co2Service;
+    private final DistanceCache distanceCache;
+    private final DistanceEstimator estimator;
+    private final Validator validator;
+    private final ObjectMapper mapper;
+    private final ExecutorService geocodeExecutor;
+    private final int chunkSize;
+
+    public TripBatchProcessor(Co2CalculatorService co2Service,
+                              DistanceCache distanceCache,
+                              DistanceEstimator estimator,
+                              Validator validator,
+                              ObjectMapper mapper,
+                              @Qualifier("geocodeExecutor") ExecutorService geocodeExecutor,
+                              @Value("${BATCH_CHUNK_SIZE:1000}") int chunkSize) {
+        this.co2Service = co2Service;
+        this.distanceCache = distanceCache;
+        this.estimator = estimator;
+        this.validator = validator;
+        this.mapper = mapper;
+        this.geocodeExecutor = geocodeExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchSummary process(TripRecordReader reader, Writer out) throws IOException {
+        long start = System.nanoTime();
+        BatchSummary summary = new BatchSummary();
+        List<TripRecord> chunk = new ArrayList<>(chunkSize);
+
+        while (reader.hasNext()) {
+            chunk.add(reader.next());
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, out, summary);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, out, summary);
+        }
+
+        out.flush();
+        summary.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return summary;
+    }
+
+    /**
+     * Calculates an in-memory list of trips. Results are returned in request order and numbered
+     * from 1; failures, including {@code null} entries, are reported per trip exactly as in
+     * {@link #process(TripRecordReader, Writer)}.
+     */
+    public List<TripResultDTO> process(List<Co2CalculateRequestDTO> requests) {
+        List<TripResultDTO> results = new ArrayList<>(requests.size());
+        List<TripRecord> chunk = new ArrayList<>(Math.min(chunkSize, requests.size()));
+
+        for (int i = 0; i < requests.size(); i++) {
+            Co2CalculateRequestDTO request = requests.get(i);
+            chunk.add(new TripRecord(i + 1, request, request == null ? "Trip must not be null" : null));
+            if (chunk.size() == chunkSize || i == requests.size() - 1) {
+                results.addAll(resolveChunk(chunk));
+                chunk.clear();
+            }
+        }
+        return results;
+    }
+
+    private void processChunk(List<TripRecord> chunk, Writer out, BatchSummary summary) throws IOException {
+        for (TripResultDTO result : resolveChunk(chunk)) {
+            if (result.getError() == null) {
+                summary.recordSuccess();
+            } else {
+                summary.recordFailure();
+            }
+            out.write(mapper.writeValueAsString(result));
+            out.write(System.lineSeparator());
+        }
+    }
+
+    private List<TripResultDTO> resolveChunk(List<TripRecord> chunk) {
+        List<TripResultDTO> results = new ArrayList<>(chunk.size());
+        List<TripResultDTO> pending = new ArrayList<>();
+        Map<String, String> cities = new LinkedHashMap<>();
+
+        for (TripRecord record : chunk) {
+            TripResultDTO result = newResult(record);
+            results.add(result);
+            if (result.getError() == null) {
+                pending.add(result);
+                cities.putIfAbsent(GeocodeCache.normalize(result.getStart()), result.getStart());
+                cities.putIfAbsent(GeocodeCache.normalize(result.getEnd()), result.getEnd());
+            }
+        }
+
+        Map<String, CompletableFuture<double[]>> lookups = new HashMap<>();
+        cities.forEach((key, city) ->
+                lookups.put(key, CompletableFuture.supplyAsync(() -> co2Service.getCoordinates(city), geocodeExecutor)));
+
+        Map<String, double[]> coordinates = new HashMap<>();
+        Map<String, String> cityErrors = new HashMap<>();
+        lookups.forEach((key, lookup) -> {
+            try {
+                coordinates.put(key, lookup.join());
+            } catch (CompletionException e) {
+                cityErrors.put(key, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        });
+
+        resolveDistances(pending, coordinates, cityErrors);
+        return results;
+    }
+
+    private void resolveDistances(List<TripResultDTO> pending, Map<String, double[]> coordinates, Map<String, String> cityErrors) {
+        List<TripResultDTO> uncached = new ArrayList<>();
+        Map<String, Integer> origins = new LinkedHashMap<>();
+        Map<String, Integer> destinations = new LinkedHashMap<>();
+
+        for (TripResultDTO result : pending) {
+            String startKey = GeocodeCache.normalize(result.getStart());
+            String endKey = GeocodeCache.normalize(result.getEnd());
+            String error = cityErrors.containsKey(startKey) ? cityErrors.get(startKey) : cityErrors.get(endKey);
+            if (error != null) {
+                result.setError(error);
+                continue;
+            }
+
+            Double cached = distanceCache.get(coordinates.get(startKey), coordinates.get(endKey));
+            if (cached != null) {
+                complete(result, cached);
+            } else {
+                uncached.add(result);
+                origins.putIfAbsent(startKey, origins.size());
+                destinations.putIfAbsent(endKey, destinations.size());
+            }
+        }
+
+        if (uncached.isEmpty()) {
+            return;
+        }
+
+        double[][] matrix;
+        try {
+            boolean[][] needed = new boolean[origins.size()][destinations.size()];
+            for (TripResultDTO result : uncached) {
+                needed[origins.get(GeocodeCache.normalize(result.getStart()))][destinations.get(GeocodeCache.normalize(result.getEnd()))] = true;
+            }
+            matrix = co2Service.getDistanceMatrixKm(
+                    origins.keySet().stream().map(coordinates::get).toList(),
+                    destinations.keySet().stream().map(coordinates::get).toList(), needed);
+        } catch (ApiException e) {
+            uncached.forEach(result -> result.setError(e.getMessage()));
+            return;
+        }
+
+        for (TripResultDTO result : uncached) {
+            String startKey = GeocodeCache.normalize(result.getStart());
+            String endKey = GeocodeCache.normalize(result.getEnd());
+            double distanceKm = matrix[origins.get(startKey)][destinations.get(endKey)];
+            if (!estimator.isEstimateOnly()) {
+                distanceCache.put(coordinates.get(startKey), coordinates.get(endKey), distanceKm);
+            }
+            complete(result, distanceKm);
+        }
+    }
+
+    private void complete(TripResultDTO result, double distanceKm) {
+        try {
+            result.setCo2Kg(co2Service.calculateCo2Kg(distanceKm, result.getTransportationMethod()));
+            result.setDistanceKm(distanceKm);
+        } catch (ApiException e) {
+            result.setError(e.getMessage());
+        }
+    }
+
+    private TripResultDTO newResult(TripRecord record) {
+        TripResultDTO result = new TripResultDTO();
+        result.setLine(record.getLine());
+        if (record.getError() != null) {
+            result.setError(record.getError());
+            return result;
+        }
+
+        Co2CalculateRequestDTO request = record.getRequest();
+        result.setStart(request.getStart());
+        result.setEnd(request.getEnd());
+        result.setTransportationMethod(request.getTransportationMethod());
+
+        Set<ConstraintViolation<Co2CalculateRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            result.setError(violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining("; ")));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+package com.sap.batch;
+
+import com.sap.cache.GeocodeCache;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Ranks cities and city pairs of past trips by frequency and recency. Trips are expected in the
+ * order they happened; every trip counts twice as much as the one {@code halfLifeTrips} before it,
+ * so a city that was busy last week outranks one that was busy last year. Memory grows with the
+ * number of distinct cities and pairs, not with the number of trips.
+ */
+public class TripHistory {
+
+    /** Scores are rescaled before the growing weight could overflow a double. */
+    private static final double RESCALE_ABOVE = 1e150;
+
+    private final double growth;
+    private final Map<String, Ranked> cities = new HashMap<>();
+    private final Map<String, Ranked> pairs = new HashMap<>();
+    private double weight = 1;
+    @Getter
+    private long trips;
+
+    public TripHistory(double halfLifeTrips) {
+        this.growth = Math.pow(2, 1 / Math.max(1, halfLifeTrips));
+    }
+
+    public void add(String start, String end) {
+        if (weight > RESCALE_ABOVE) {
+            double scale = 1 / weight;
+            cities.values().forEach(ranked -> ranked.score *= scale);
+            pairs.values().forEach(ranked -> ranked.score *= scale);
+            weight = 1;
+        }
+        String startKey = GeocodeCache.normalize(start);
+        String endKey = GeocodeCache.normalize(end);
+        score(cities, startKey, start, null);
+        score(cities, endKey, end, null);
+        score(pairs, startKey + '\n' + endKey, start, end);
+        weight *= growth;
+        trips++;
+    }
+
+    public int distinctCities() {
+        return cities.size();
+    }
+
+    public int distinctPairs() {
+        return pairs.size();
+    }
+
+    /**
+     * The {@code k} highest-ranked cities, best first.
+     */
+    public List<String> topCities(int k) {
+        return top(cities, k).stream().map(ranked -> ranked.start).toList();
+    }
+
+    /**
+     * The {@code k} highest-ranked (start, end) pairs, best first.
+     */
+    public List<String[]> topPairs(int k) {
+        return top(pairs, k).stream().map(ranked -> new String[]{ranked.start, ranked.end}).toList();
+    }
+
+    private void score(Map<String, Ranked> ranking, String key, String start, String end) {
+        ranking.computeIfAbsent(key, k -> new Ranked(start, end)).score += weight;
+    }
+
+    private static List<Ranked> top(Map<String, Ranked> ranking, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Comparator<Ranked> byScore = Comparator.comparingDouble(ranked -> ranked.score);
+        PriorityQueue<Ranked> best = new PriorityQueue<>(k + 1, byScore);
+        for (Ranked ranked : ranking.values()) {
+            best.add(ranked);
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<Ranked> sorted = new ArrayList<>(best);
+        sorted.sort(byScore.reversed());
+        return sorted;
+    }
+
+    private static final class Ranked {
+        private final String start;
+        private final String end;
+        private double score;
+
+        Ranked(String start, String end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sap.batch;
+
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TripRecord {
+    private final long line;
+    private final Co2CalculateRequestDTO request;
+    private final String error;
+}
@@ -0,0 +1,163 @@
+package com.sap.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.utility.AppConstants;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams trip records from a CSV file with a header row or from a JSON-lines file.
+ * CSV columns are matched by the CLI option names ({@code start}, {@code end},
+ * {@code transportation-method}); JSON objects use the request DTO property names.
+ * Rows that cannot be parsed are returned as records carrying an error instead of failing the stream.
+ */
+public class TripRecordReader implements Iterator<TripRecord>, Closeable {
+
+    public enum Format {
+        CSV, JSONL;
+
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".jsonl") || lower.endsWith(".json") || lower.endsWith(".ndjson") ? JSONL : CSV;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectReader jsonReader;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+    private TripRecord next;
+
+    public TripRecordReader(BufferedReader reader, Format format, ObjectMapper mapper) {
+        this.reader = reader;
+        this.format = format;
+        this.jsonReader = mapper.readerFor(Co2CalculateRequestDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public TripRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TripRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private TripRecord readNext() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                if (format == Format.JSONL) {
+                    return parseJson(line);
+                }
+                if (columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                return parseCsv(line);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TripRecord parseJson(String line) {
+        try {
+            Co2CalculateRequestDTO request = jsonReader.readValue(line);
+            if (request == null) {
+                return new TripRecord(lineNumber, null, "Invalid JSON record: not an object");
+            }
+            return new TripRecord(lineNumber, request, null);
+        } catch (JsonProcessingException e) {
+            return new TripRecord(lineNumber, null, "Invalid JSON record: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            header.put(name.equals("transportationmethod") ? AppConstants.TRANSPORTATION_METHOD : name, i);
+        }
+        return header;
+    }
+
+    private TripRecord parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        Co2CalculateRequestDTO request = new Co2CalculateRequestDTO();
+        request.setStart(column(values, AppConstants.START));
+        request.setEnd(column(values, AppConstants.END));
+        request.setTransportationMethod(column(values, AppConstants.TRANSPORTATION_METHOD));
+        return new TripRecord(lineNumber, request, null);
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= values.size() ? null : values.get(index).trim();
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sap.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class WarmupSummary {
+    private final long historyTrips;
+    private final int citiesWarmed;
+    private final int citiesRanked;
+    private final int pairsWarmed;
+    private final int pairsRanked;
+    private final int failed;
+    private final long elapsedMillis;
+
+    /** Cache counters when the warm-up finished, the baseline for {@link CacheWarmer#servedWarm}. */
+    private final long geocodeLookups;
+    private final long geocodeWarmHits;
+    private final long distanceLookups;
+    private final long distanceWarmHits;
+
+    @Override
+    public String toString() {
+        return String.format("Warmed %d of %d cities and %d of %d city pairs from %d past trips (%d failed) in %d ms",
+                citiesWarmed, citiesRanked, pairsWarmed, pairsRanked, historyTrips, failed, elapsedMillis);
+    }
+}
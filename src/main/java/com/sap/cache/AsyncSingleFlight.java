@@ -0,0 +1,104 @@
+package com.sap.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link SingleFlight}: concurrent loads of the same key share one
+ * {@link CompletableFuture}. Every caller gets its own dependent future, so cancelling it never
+ * affects the others; the shared load is cancelled only once every caller has given up on it.
+ */
+public class AsyncSingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Runnable onCoalesced;
+
+    public AsyncSingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    public AsyncSingleFlight() {
+        this(() -> {
+        });
+    }
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        Flight<V> flight = new Flight<>();
+        while (true) {
+            Flight<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                break;
+            }
+            if (existing.join()) {
+                onCoalesced.run();
+                return existing.follow();
+            }
+            // Abandoned by all its callers and about to be removed: start a fresh load instead.
+            inFlight.remove(key, existing);
+        }
+
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (Throwable e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        flight.start(load, () -> inFlight.remove(key, flight));
+        return flight.follow();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private CompletableFuture<V> load;
+        private int callers = 1;
+
+        void start(CompletableFuture<V> load, Runnable onDone) {
+            synchronized (this) {
+                this.load = load;
+            }
+            load.whenComplete((value, error) -> {
+                onDone.run();
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+
+        synchronized boolean join() {
+            if (callers == 0) {
+                return false;
+            }
+            callers++;
+            return true;
+        }
+
+        CompletableFuture<V> follow() {
+            CompletableFuture<V> follower = result.thenApply(value -> value);
+            follower.whenComplete((value, error) -> {
+                if (!result.isDone()) {
+                    leave();
+                }
+            });
+            return follower;
+        }
+
+        private void leave() {
+            CompletableFuture<V> abandoned;
+            synchronized (this) {
+                abandoned = --callers == 0 ? load : null;
+            }
+            if (abandoned != null) {
+                abandoned.cancel(true);
+                result.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.sap.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cache of road distances keyed by the (start, end) coordinate pair.
+ * Coordinates are rounded to five decimals (about one metre) so that the same city geocoded
+ * twice maps to the same key. When {@code symmetric} is enabled the pair is stored in
+ * canonical order, so a cached A to B distance also answers B to A.
+ */
+@Component
+public class DistanceCache {
+
+    private static final double COORDINATE_SCALE = 1e5;
+
+    private final TtlLruCache<PairKey, Double> cache;
+    private final long ttlNanos;
+    private final boolean symmetric;
+
+    public DistanceCache(@Value("${DISTANCE_CACHE_MAX_SIZE:50000}") int maxSize,
+                         @Value("${DISTANCE_CACHE_TTL_MINUTES:1440}") long ttlMinutes,
+                         @Value("${DISTANCE_CACHE_SYMMETRIC:true}") boolean symmetric) {
+        this.cache = new TtlLruCache<>(maxSize);
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.symmetric = symmetric;
+    }
+
+    /**
+     * Returns the cached distance in kilometres, or {@code null} on a miss.
+     */
+    public Double get(double[] start, double[] end) {
+        return cache.get(key(start, end));
+    }
+
+    /**
+     * Returns the cached distance even if expired, or {@code null} if it was never cached or has been evicted.
+     */
+    public Double getStale(double[] start, double[] end) {
+        return cache.getStale(key(start, end));
+    }
+
+    /**
+     * Whether a live distance is cached for the pair; does not affect the hit and miss statistics.
+     */
+    public boolean contains(double[] start, double[] end) {
+        return cache.peek(key(start, end)) != null;
+    }
+
+    public void put(double[] start, double[] end, double distanceKm) {
+        cache.put(key(start, end), distanceKm, ttlNanos);
+    }
+
+    public void markWarm(double[] start, double[] end) {
+        cache.markWarm(key(start, end));
+    }
+
+    public long warmHits() {
+        return cache.warmHits();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the key the pair is cached under; pairs sharing a cache entry have equal keys.
+     */
+    public PairKey key(double[] start, double[] end) {
+        long startLon = Math.round(start[0] * COORDINATE_SCALE);
+        long startLat = Math.round(start[1] * COORDINATE_SCALE);
+        long endLon = Math.round(end[0] * COORDINATE_SCALE);
+        long endLat = Math.round(end[1] * COORDINATE_SCALE);
+
+        if (symmetric && (startLon > endLon || (startLon == endLon && startLat > endLat))) {
+            return new PairKey(endLon, endLat, startLon, startLat);
+        }
+        return new PairKey(startLon, startLat, endLon, endLat);
+    }
+
+    public record PairKey(long startLon, long startLat, long endLon, long endLat) {
+    }
+}
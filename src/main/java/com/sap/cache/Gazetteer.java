@@ -0,0 +1,406 @@
+package com.sap.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Optional offline geocoder backed by a local GeoNames-style gazetteer ({@code cities500.txt},
+ * {@code cities15000.txt}, ...: tab-separated, name in column 2, ASCII name in column 3, alternate
+ * names in column 4, latitude and longitude in columns 5 and 6, feature class in column 7 and
+ * population in column 15). Only populated places ({@code P}) are indexed.
+ * <p>
+ * Normalized names are kept sorted in one shared {@code char[]} with an offset table and primitive
+ * coordinate and population arrays, so the whole index costs a few dozen bytes per name and no
+ * objects per entry. Where several places share a name, the most populous one wins. Lookups
+ * try, in order:
+ * <ol>
+ *     <li>an exact match by binary search</li>
+ *     <li>the most populous name starting with the query, for queries of at least
+ *     {@code minPrefixLength} characters</li>
+ *     <li>the closest name within {@code maxEdits} insertions, deletions, substitutions or adjacent
+ *     transpositions, for queries of at least five characters; candidates must share the first two
+ *     characters of the query and ties go to the larger population</li>
+ * </ol>
+ * The file is read on the first lookup, stops after {@code maxEntries} names and logs the time it
+ * took and the size of the index.
+ */
+@Slf4j
+@Component
+public class Gazetteer {
+
+    private static final int FUZZY_MIN_LENGTH = 5;
+
+    private static final int NAME = 1;
+    private static final int ASCII_NAME = 2;
+    private static final int ALTERNATE_NAMES = 3;
+    private static final int LATITUDE = 4;
+    private static final int LONGITUDE = 5;
+    private static final int FEATURE_CLASS = 6;
+    private static final int POPULATION = 14;
+
+    public enum MatchType {
+        EXACT, PREFIX, FUZZY
+    }
+
+    public record Match(String name, double[] coordinates, long population, MatchType type) {
+    }
+
+    private final Path file;
+    private final long minPopulation;
+    private final boolean alternateNames;
+    private final int maxEntries;
+    private final int minPrefixLength;
+    private final int maxEdits;
+    private volatile Index index;
+
+    public Gazetteer(@Value("${GAZETTEER_FILE:}") String file,
+                     @Value("${GAZETTEER_MIN_POPULATION:0}") long minPopulation,
+                     @Value("${GAZETTEER_ALTERNATE_NAMES:false}") boolean alternateNames,
+                     @Value("${GAZETTEER_MAX_ENTRIES:2000000}") int maxEntries,
+                     @Value("${GAZETTEER_MIN_PREFIX_LENGTH:4}") int minPrefixLength,
+                     @Value("${GAZETTEER_MAX_EDITS:1}") int maxEdits) {
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.minPopulation = minPopulation;
+        this.alternateNames = alternateNames;
+        this.maxEntries = maxEntries;
+        this.minPrefixLength = minPrefixLength;
+        this.maxEdits = maxEdits;
+    }
+
+    public static Gazetteer disabled() {
+        return new Gazetteer(null, 0, false, 0, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Returns the coordinates as {@code [longitude, latitude]}, or {@code null} if no name matches.
+     */
+    public double[] get(String city) {
+        Match match = find(city);
+        return match == null ? null : match.coordinates();
+    }
+
+    public Match find(String city) {
+        if (file == null || city == null) {
+            return null;
+        }
+        Index loaded = load();
+        String query = GeocodeCache.normalize(city);
+        if (query.isEmpty()) {
+            return null;
+        }
+
+        int position = loaded.lowerBound(query, 0, loaded.size);
+        if (position < loaded.size && loaded.compare(position, query) == 0) {
+            return loaded.match(position, MatchType.EXACT);
+        }
+
+        if (query.length() >= minPrefixLength) {
+            int best = -1;
+            for (int i = position; i < loaded.size && loaded.startsWith(i, query); i++) {
+                if (best < 0 || loaded.population[i] > loaded.population[best]) {
+                    best = i;
+                }
+            }
+            if (best >= 0) {
+                return loaded.match(best, MatchType.PREFIX);
+            }
+        }
+
+        if (maxEdits > 0 && query.length() >= FUZZY_MIN_LENGTH) {
+            int best = loaded.closest(query, maxEdits);
+            if (best >= 0) {
+                return loaded.match(best, MatchType.FUZZY);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of indexed names, loading the file if necessary.
+     */
+    public int size() {
+        return file == null ? 0 : load().size;
+    }
+
+    /**
+     * Approximate heap used by the index in bytes, loading the file if necessary.
+     */
+    public long memoryBytes() {
+        return file == null ? 0 : load().memoryBytes();
+    }
+
+    private Index load() {
+        Index loaded = index;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = index;
+                if (loaded == null) {
+                    index = loaded = read();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private Index read() {
+        long start = System.nanoTime();
+        List<String> names = new ArrayList<>();
+        List<Integer> places = new ArrayList<>();
+        double[] longitudes = new double[1024];
+        double[] latitudes = new double[1024];
+        long[] populations = new long[1024];
+        int placeCount = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && names.size() < maxEntries) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length <= POPULATION || !"P".equals(fields[FEATURE_CLASS])) {
+                    continue;
+                }
+                long population;
+                double latitude;
+                double longitude;
+                try {
+                    population = fields[POPULATION].isEmpty() ? 0 : Long.parseLong(fields[POPULATION]);
+                    latitude = Double.parseDouble(fields[LATITUDE]);
+                    longitude = Double.parseDouble(fields[LONGITUDE]);
+                } catch (NumberFormatException e) {
+                    log.debug("Skipping malformed gazetteer line: {}", line);
+                    continue;
+                }
+                if (population < minPopulation) {
+                    continue;
+                }
+
+                if (placeCount == longitudes.length) {
+                    longitudes = Arrays.copyOf(longitudes, placeCount * 2);
+                    latitudes = Arrays.copyOf(latitudes, placeCount * 2);
+                    populations = Arrays.copyOf(populations, placeCount * 2);
+                }
+                longitudes[placeCount] = longitude;
+                latitudes[placeCount] = latitude;
+                populations[placeCount] = population;
+
+                addName(names, places, fields[NAME], placeCount);
+                if (!fields[ASCII_NAME].equals(fields[NAME])) {
+                    addName(names, places, fields[ASCII_NAME], placeCount);
+                }
+                if (alternateNames && !fields[ALTERNATE_NAMES].isEmpty()) {
+                    for (String alternate : fields[ALTERNATE_NAMES].split(",")) {
+                        addName(names, places, alternate, placeCount);
+                    }
+                }
+                placeCount++;
+            }
+            if (line != null) {
+                log.warn("Gazetteer {} truncated at {} names (GAZETTEER_MAX_ENTRIES)", file, maxEntries);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read gazetteer {}: {}", file, e.getMessage());
+        }
+
+        Index built = Index.build(names, places, longitudes, latitudes, populations);
+        log.info("Loaded {} gazetteer names from {} in {} ms (~{} KiB)",
+                built.size, file, (System.nanoTime() - start) / 1_000_000, built.memoryBytes() / 1024);
+        return built;
+    }
+
+    private static void addName(List<String> names, List<Integer> places, String name, int place) {
+        String normalized = GeocodeCache.normalize(name);
+        if (!normalized.isEmpty()) {
+            names.add(normalized);
+            places.add(place);
+        }
+    }
+
+    private static final class Index {
+
+        private final char[] chars;
+        private final int[] offsets;
+        private final double[] longitude;
+        private final double[] latitude;
+        private final long[] population;
+        private final int size;
+
+        private Index(char[] chars, int[] offsets, double[] longitude, double[] latitude, long[] population, int size) {
+            this.chars = chars;
+            this.offsets = offsets;
+            this.longitude = longitude;
+            this.latitude = latitude;
+            this.population = population;
+            this.size = size;
+        }
+
+        /**
+         * Sorts the names, keeps only the most populous place per name and packs everything into flat arrays.
+         */
+        static Index build(List<String> names, List<Integer> places, double[] longitudes, double[] latitudes, long[] populations) {
+            Integer[] order = new Integer[names.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer, String>comparing(names::get)
+                    .thenComparing(i -> -populations[places.get(i)]));
+
+            int unique = 0;
+            int length = 0;
+            for (int i = 0; i < order.length; i++) {
+                if (i == 0 || !names.get(order[i]).equals(names.get(order[i - 1]))) {
+                    unique++;
+                    length += names.get(order[i]).length();
+                }
+            }
+
+            char[] chars = new char[length];
+            int[] offsets = new int[unique + 1];
+            double[] longitude = new double[unique];
+            double[] latitude = new double[unique];
+            long[] population = new long[unique];
+            int entry = 0;
+            int position = 0;
+            for (int i = 0; i < order.length; i++) {
+                String name = names.get(order[i]);
+                if (i > 0 && name.equals(names.get(order[i - 1]))) {
+                    continue;
+                }
+                int place = places.get(order[i]);
+                name.getChars(0, name.length(), chars, position);
+                offsets[entry] = position;
+                longitude[entry] = longitudes[place];
+                latitude[entry] = latitudes[place];
+                population[entry] = populations[place];
+                position += name.length();
+                entry++;
+            }
+            offsets[unique] = position;
+            return new Index(chars, offsets, longitude, latitude, population, unique);
+        }
+
+        Match match(int i, MatchType type) {
+            return new Match(new String(chars, offsets[i], offsets[i + 1] - offsets[i]),
+                    new double[]{longitude[i], latitude[i]}, population[i], type);
+        }
+
+        int lowerBound(String key, int from, int to) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(mid, key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int compare(int i, String key) {
+            int start = offsets[i];
+            int length = offsets[i + 1] - start;
+            int common = Math.min(length, key.length());
+            for (int k = 0; k < common; k++) {
+                int diff = chars[start + k] - key.charAt(k);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - key.length();
+        }
+
+        boolean startsWith(int i, String prefix) {
+            int start = offsets[i];
+            if (offsets[i + 1] - start < prefix.length()) {
+                return false;
+            }
+            for (int k = 0; k < prefix.length(); k++) {
+                if (chars[start + k] != prefix.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Scans the names sharing the query's first two characters for the smallest edit distance.
+         */
+        int closest(String query, int maxEdits) {
+            String head = query.substring(0, 2);
+            int best = -1;
+            int bestDistance = maxEdits + 1;
+            int[][] rows = new int[3][query.length() + 1];
+
+            for (int i = lowerBound(head, 0, size); i < size && startsWith(i, head); i++) {
+                if (Math.abs(offsets[i + 1] - offsets[i] - query.length()) > maxEdits) {
+                    continue;
+                }
+                int distance = distance(i, query, Math.min(maxEdits, bestDistance), rows);
+                if (distance < bestDistance || (distance == bestDistance && distance <= maxEdits && population[i] > population[best])) {
+                    best = i;
+                    bestDistance = distance;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Optimal-string-alignment distance between name {@code i} and the query, or {@code limit + 1}
+         * as soon as it is certain to exceed {@code limit}. {@code rows} is scratch space.
+         */
+        private int distance(int i, String query, int limit, int[][] rows) {
+            int start = offsets[i];
+            int length = offsets[i + 1] - start;
+            int columns = query.length();
+            int[] before = rows[0];
+            int[] previous = rows[1];
+            int[] current = rows[2];
+            for (int j = 0; j <= columns; j++) {
+                previous[j] = j;
+            }
+
+            for (int r = 1; r <= length; r++) {
+                char c = chars[start + r - 1];
+                current[0] = r;
+                int rowMin = r;
+                for (int j = 1; j <= columns; j++) {
+                    char q = query.charAt(j - 1);
+                    int value = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + (c == q ? 0 : 1));
+                    if (r > 1 && j > 1 && c == query.charAt(j - 2) && chars[start + r - 2] == q) {
+                        value = Math.min(value, before[j - 2] + 1);
+                    }
+                    current[j] = value;
+                    rowMin = Math.min(rowMin, value);
+                }
+                if (rowMin > limit) {
+                    return limit + 1;
+                }
+                int[] recycled = before;
+                before = previous;
+                previous = current;
+                current = recycled;
+            }
+            return Math.min(previous[columns], limit + 1);
+        }
+
+        long memoryBytes() {
+            return 16L + 2L * chars.length + 16 + 4L * offsets.length + 3 * (16 + 8L * size);
+        }
+    }
+}
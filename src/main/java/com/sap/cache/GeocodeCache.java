@@ -0,0 +1,93 @@
+package com.sap.cache;
+
+import com.sap.exception.CityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cache of geocode results keyed by normalized city name.
+ * Cities the provider could not resolve are cached as negative entries with their own,
+ * usually shorter, TTL so repeated typos do not hit the network either.
+ */
+@Component
+public class GeocodeCache {
+
+    private final TtlLruCache<String, Entry> cache;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    public GeocodeCache(@Value("${GEOCODE_CACHE_MAX_SIZE:10000}") int maxSize,
+                        @Value("${GEOCODE_CACHE_TTL_MINUTES:1440}") long ttlMinutes,
+                        @Value("${GEOCODE_CACHE_NEGATIVE_TTL_MINUTES:60}") long negativeTtlMinutes) {
+        this.cache = new TtlLruCache<>(maxSize);
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.negativeTtlNanos = TimeUnit.MINUTES.toNanos(negativeTtlMinutes);
+    }
+
+    /**
+     * Returns the cached coordinates for the city, or {@code null} on a miss.
+     *
+     * @throws CityNotFoundException if the city is cached as not found
+     */
+    public double[] get(String city) {
+        Entry entry = cache.get(normalize(city));
+        if (entry == null) {
+            return null;
+        }
+        if (entry.coordinates == null) {
+            throw new CityNotFoundException(entry.notFoundMessage);
+        }
+        return entry.coordinates.clone();
+    }
+
+    /**
+     * Returns cached coordinates even if expired, or {@code null}; negative entries are ignored.
+     */
+    public double[] getStale(String city) {
+        Entry entry = cache.getStale(normalize(city));
+        return entry == null || entry.coordinates == null ? null : entry.coordinates.clone();
+    }
+
+    /**
+     * Returns live cached coordinates, or {@code null}; negative entries are ignored and the
+     * hit and miss statistics are not affected.
+     */
+    public double[] peek(String city) {
+        Entry entry = cache.peek(normalize(city));
+        return entry == null || entry.coordinates == null ? null : entry.coordinates.clone();
+    }
+
+    public void put(String city, double[] coordinates) {
+        cache.put(normalize(city), new Entry(coordinates.clone(), null), ttlNanos);
+    }
+
+    public void putNotFound(String city, String message) {
+        cache.put(normalize(city), new Entry(null, message), negativeTtlNanos);
+    }
+
+    public void markWarm(String city) {
+        cache.markWarm(normalize(city));
+    }
+
+    public long warmHits() {
+        return cache.warmHits();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public static String normalize(String city) {
+        return city.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(double[] coordinates, String notFoundMessage) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.sap.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only on-disk store of geocode results that survives JVM restarts.
+ * <p>
+ * Each record is one {@code name\tlongitude\tlatitude} line. Writers from concurrent CLI
+ * processes are serialized through an OS file lock on a side-car lock file; readers never
+ * lock and only consume complete lines, picking up records appended by other processes on
+ * the next miss. Once the log holds too many superseded records it is rewritten and
+ * atomically swapped in, which other processes detect through the changed file identity.
+ */
+@Slf4j
+@Component
+public class GeocodeStore {
+
+    private static final String LOG_FILE = "geocode.log";
+    private static final String LOCK_FILE = "geocode.lock";
+
+    private final boolean enabled;
+    private final Path logFile;
+    private final Path lockFile;
+    private final int compactThreshold;
+
+    private final Map<String, double[]> index = new ConcurrentHashMap<>();
+    private boolean loaded;
+    private long loadedOffset;
+    private Object loadedFileKey;
+    private long recordCount;
+
+    public GeocodeStore(@Value("${GEOCODE_STORE_ENABLED:true}") boolean enabled,
+                        @Value("${GEOCODE_STORE_DIR:${user.home}/.sap-co2}") String directory,
+                        @Value("${GEOCODE_STORE_COMPACT_THRESHOLD:10000}") int compactThreshold) {
+        this.enabled = enabled;
+        this.logFile = enabled ? Paths.get(directory, LOG_FILE) : null;
+        this.lockFile = enabled ? Paths.get(directory, LOCK_FILE) : null;
+        this.compactThreshold = compactThreshold;
+    }
+
+    public static GeocodeStore disabled() {
+        return new GeocodeStore(false, null, 0);
+    }
+
+    /**
+     * Returns the stored coordinates for the city, or {@code null} if unknown.
+     */
+    public double[] get(String city) {
+        if (!enabled) {
+            return null;
+        }
+        String key = GeocodeCache.normalize(city);
+        double[] coords = index.get(key);
+        if (coords == null) {
+            refresh();
+            coords = index.get(key);
+        }
+        return coords == null ? null : coords.clone();
+    }
+
+    public void put(String city, double[] coordinates) {
+        if (!enabled) {
+            return;
+        }
+        String key = GeocodeCache.normalize(city);
+        byte[] line = (key + "\t" + coordinates[0] + "\t" + coordinates[1] + "\n").getBytes(StandardCharsets.UTF_8);
+
+        synchronized (this) {
+            try {
+                Files.createDirectories(logFile.getParent());
+                try (FileChannel lockChannel = openLockChannel(); FileLock ignored = lockChannel.lock()) {
+                    readNewRecords();
+                    try (FileChannel channel = FileChannel.open(logFile,
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                        ByteBuffer buffer = ByteBuffer.wrap(line);
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                    }
+                    readNewRecords();
+                    if (recordCount > compactThreshold && recordCount > 2L * index.size()) {
+                        compact();
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not persist coordinates for {} to {}: {}", city, logFile, e.getMessage());
+            }
+        }
+        index.put(key, coordinates.clone());
+    }
+
+    public int size() {
+        refresh();
+        return index.size();
+    }
+
+    private synchronized void refresh() {
+        try {
+            if (!loaded) {
+                loaded = true;
+                long start = System.nanoTime();
+                readNewRecords();
+                log.debug("Loaded {} geocode records from {} in {} ms",
+                        index.size(), logFile, (System.nanoTime() - start) / 1_000_000);
+            } else {
+                readNewRecords();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read geocode store {}: {}", logFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads all complete records appended since the last read. If the log was compacted
+     * by another process in the meantime the whole file is re-read. The identity and size
+     * are checked against the opened channel, so a swap or truncation between the check and
+     * the open cannot leave the offset past the end of the file being read.
+     */
+    private void readNewRecords() throws IOException {
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        Object fileKey = Files.readAttributes(logFile, BasicFileAttributes.class).fileKey();
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (!Objects.equals(fileKey, Files.readAttributes(logFile, BasicFileAttributes.class).fileKey())) {
+                log.debug("Geocode store {} was swapped while opening it, reading it on the next miss", logFile);
+                return;
+            }
+            if (size < loadedOffset || (fileKey != null && !Objects.equals(fileKey, loadedFileKey))) {
+                loadedOffset = 0;
+                recordCount = 0;
+            }
+            loadedFileKey = fileKey;
+            if (size == loadedOffset) {
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) (size - loadedOffset));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, loadedOffset + buffer.position()) <= 0) {
+                    break;
+                }
+            }
+            byte[] bytes = buffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < buffer.position(); i++) {
+                if (bytes[i] == '\n') {
+                    parseRecord(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    lineStart = i + 1;
+                }
+            }
+            loadedOffset += lineStart;
+        }
+    }
+
+    private void parseRecord(String line) {
+        String[] parts = line.split("\t");
+        if (parts.length != 3) {
+            return;
+        }
+        try {
+            index.put(parts[0], new double[]{Double.parseDouble(parts[1]), Double.parseDouble(parts[2])});
+            recordCount++;
+        } catch (NumberFormatException e) {
+            log.debug("Skipping corrupt geocode record: {}", line);
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per city. Must be called while holding the file lock.
+     */
+    private void compact() throws IOException {
+        Path tmp = logFile.resolveSibling(LOG_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, double[]> entry : index.entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue()[0] + "\t" + entry.getValue()[1] + "\n");
+            }
+        }
+        Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        loadedOffset = 0;
+        recordCount = 0;
+        loadedFileKey = null;
+        readNewRecords();
+        log.debug("Compacted geocode store {} to {} records", logFile, recordCount);
+    }
+
+    private FileChannel openLockChannel() throws IOException {
+        return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+}
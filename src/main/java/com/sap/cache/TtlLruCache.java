@@ -0,0 +1,130 @@
+package com.sap.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, thread-safe LRU cache where every entry carries its own time-to-live.
+ * The least recently used entry is evicted once {@code maxSize} is exceeded. Expired
+ * entries are no longer returned by {@link #get} but stay in place until evicted or
+ * replaced, so {@link #getStale} can still serve them while their source is unavailable.
+ * Entries loaded ahead of demand can be marked warm; hits on them are counted separately until
+ * the entry expires or is replaced.
+ */
+public class TtlLruCache<K, V> {
+
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong warmHits = new AtomicLong();
+
+    public TtlLruCache(int maxSize) {
+        this(maxSize, System::nanoTime);
+    }
+
+    public TtlLruCache(int maxSize, LongSupplier nanoClock) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.clock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt - clock.getAsLong() <= 0) {
+            if (!entry.expired) {
+                entries.put(key, new Entry<>(entry.value, entry.expiresAt, true, false));
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        if (entry.warm) {
+            warmHits.incrementAndGet();
+        }
+        return entry.value;
+    }
+
+    /**
+     * Returns the value even if its time-to-live has passed, or {@code null} if it was never
+     * cached or has been evicted. Does not affect the hit and miss statistics.
+     */
+    public synchronized V getStale(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Returns the value if it is cached and live, without affecting the hit and miss statistics.
+     */
+    public synchronized V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.expired || entry.expiresAt - clock.getAsLong() <= 0 ? null : entry.value;
+    }
+
+    public synchronized void put(K key, V value, long ttlNanos) {
+        if (maxSize == 0 || ttlNanos <= 0) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos, false, false));
+    }
+
+    /**
+     * Marks a live entry as warm; does nothing if the key is absent or expired.
+     */
+    public synchronized void markWarm(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && !entry.expired && entry.expiresAt - clock.getAsLong() > 0) {
+            entries.put(key, new Entry<>(entry.value, entry.expiresAt, false, true));
+        }
+    }
+
+    /**
+     * Hits served by entries marked with {@link #markWarm}.
+     */
+    public long warmHits() {
+        return warmHits.get();
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), expirations.get(), entries.size());
+    }
+
+    private record Entry<V>(V value, long expiresAt, boolean expired, boolean warm) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.sap.cli;
+
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.model.dto.ItineraryRequestDTO;
+import com.sap.utility.AppConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CliOptions {
+
+    private static final List<String> TASK_OPTIONS = List.of(AppConstants.SERVER, AppConstants.REPL, AppConstants.AGGREGATE,
+            AppConstants.INPUT, AppConstants.START, AppConstants.END, AppConstants.TRANSPORTATION_METHOD, AppConstants.VIA);
+
+    private CliOptions() {
+    }
+
+    /**
+     * Parses {@code --key value} and {@code --flag} arguments. A key that is not followed by a value maps to {@code null}.
+     */
+    public static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].replace("--", "").trim();
+            String value = (i + 1 < args.length && !args[i + 1].startsWith("--")) ? args[++i] : null;
+            options.put(key, value);
+        }
+
+        return options;
+    }
+
+    /**
+     * Whether the options ask for a trip, batch, aggregation, REPL or server run, as opposed to
+     * only modifiers such as {@code --warm-up} or {@code --metrics}.
+     */
+    public static boolean hasTask(Map<String, String> options) {
+        return TASK_OPTIONS.stream().anyMatch(options::containsKey);
+    }
+
+    /**
+     * Whether a trip has intermediate stops or one transportation method per leg.
+     */
+    public static boolean isItinerary(Map<String, String> options) {
+        String method = options.get(AppConstants.TRANSPORTATION_METHOD);
+        return options.containsKey(AppConstants.VIA) || (method != null && method.contains(","));
+    }
+
+    /**
+     * Values of an option that may be repeated, e.g. {@code --via A --via B}, in command-line order.
+     */
+    public static List<String> values(String[] args, String key) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].replace("--", "").trim().equals(key) && i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.add(args[++i]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Builds an itinerary from {@code --start}, any number of {@code --via} and {@code --end}. The
+     * transportation method may list one method per leg, separated by commas.
+     */
+    public static ItineraryRequestDTO toItinerary(String[] args, Map<String, String> options) {
+        List<String> stops = new ArrayList<>();
+        stops.add(options.get(AppConstants.START));
+        stops.addAll(values(args, AppConstants.VIA));
+        stops.add(options.get(AppConstants.END));
+
+        String methods = options.get(AppConstants.TRANSPORTATION_METHOD);
+        ItineraryRequestDTO request = new ItineraryRequestDTO();
+        request.setStops(stops);
+        request.setTransportationMethods(methods == null ? List.of() : Arrays.stream(methods.split(",")).map(String::trim).toList());
+        return request;
+    }
+
+    public static Co2CalculateRequestDTO toRequest(Map<String, String> options) {
+        Co2CalculateRequestDTO request = new Co2CalculateRequestDTO();
+        request.setStart(options.get(AppConstants.START));
+        request.setEnd(options.get(AppConstants.END));
+        request.setTransportationMethod(options.get(AppConstants.TRANSPORTATION_METHOD));
+        return request;
+    }
+
+    /**
+     * Splits a command line on whitespace, keeping single- or double-quoted sections together.
+     */
+    public static String[] tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        boolean inToken = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
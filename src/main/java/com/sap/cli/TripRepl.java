@@ -0,0 +1,96 @@
+package com.sap.cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.model.dto.TripResultDTO;
+import com.sap.service.Co2CalculatorService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resident line-protocol mode. Reads one trip per input line, either as a JSON object
+ * ({@code {"start":"Berlin","end":"Hamburg","transportationMethod":"bus-default"}}) or in CLI
+ * syntax ({@code --start Berlin --end Hamburg --transportation-method bus-default}), and answers
+ * each with one JSON line. The Spring context, HTTP pool and caches stay warm between requests.
+ * Input ends on EOF or a {@code quit}/{@code exit} line.
+ */
+@Component
+public class TripRepl {
+
+    private final Co2CalculatorService co2Service;
+    private final Validator validator;
+    private final ObjectMapper mapper;
+    private final ObjectReader requestReader;
+
+    public TripRepl(Co2CalculatorService co2Service, Validator validator, ObjectMapper mapper) {
+        this.co2Service = co2Service;
+        this.validator = validator;
+        this.mapper = mapper;
+        this.requestReader = mapper.readerFor(Co2CalculateRequestDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public long run(BufferedReader in, PrintWriter out) throws IOException {
+        long requests = 0;
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.equalsIgnoreCase("quit") || line.equalsIgnoreCase("exit")) {
+                break;
+            }
+
+            out.println(mapper.writeValueAsString(handle(++requests, line)));
+            out.flush();
+        }
+
+        return requests;
+    }
+
+    TripResultDTO handle(long sequence, String line) {
+        TripResultDTO result = new TripResultDTO();
+        result.setLine(sequence);
+
+        Co2CalculateRequestDTO request;
+        try {
+            request = line.startsWith("{")
+                    ? requestReader.readValue(line)
+                    : CliOptions.toRequest(CliOptions.parse(CliOptions.tokenize(line)));
+        } catch (JsonProcessingException e) {
+            result.setError("Invalid JSON request: " + e.getOriginalMessage());
+            return result;
+        }
+
+        result.setStart(request.getStart());
+        result.setEnd(request.getEnd());
+        result.setTransportationMethod(request.getTransportationMethod());
+
+        Set<ConstraintViolation<Co2CalculateRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            result.setError(violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining("; ")));
+            return result;
+        }
+
+        try {
+            double distanceKm = co2Service.getDistanceKm(request.getStart(), request.getEnd());
+            result.setCo2Kg(co2Service.calculateCo2Kg(distanceKm, request.getTransportationMethod()));
+            result.setDistanceKm(distanceKm);
+        } catch (Exception e) {
+            result.setError(e.getMessage());
+        }
+        return result;
+    }
+}
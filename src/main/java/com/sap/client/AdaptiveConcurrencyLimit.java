@@ -0,0 +1,78 @@
+package com.sap.client;
+
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limit. Each success raises the limit by {@code 1/limit} (about +1 per round
+ * trip at full concurrency), a throttled response halves it and pauses new calls for the
+ * provider's {@code Retry-After}, and a server error or timeout cuts it by a quarter. The limit
+ * stays within {@code [min, max]}.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public enum Outcome {
+        SUCCESS, THROTTLED, OVERLOADED
+    }
+
+    private final int min;
+    private final int max;
+    private final LongSupplier clock;
+    private double limit;
+    private int inFlight;
+    private long pausedUntil;
+
+    public AdaptiveConcurrencyLimit(int min, int max, LongSupplier nanoClock) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.clock = nanoClock;
+        this.limit = this.max;
+        this.pausedUntil = nanoClock.getAsLong();
+    }
+
+    public AdaptiveConcurrencyLimit(int min, int max) {
+        this(min, max, System::nanoTime);
+    }
+
+    /**
+     * Blocks until a slot is free and no back-off pause is active.
+     *
+     * @return {@code false} if that did not happen before {@code deadlineNanos}
+     */
+    public synchronized boolean acquire(long deadlineNanos) throws InterruptedException {
+        while (true) {
+            long now = clock.getAsLong();
+            long pause = pausedUntil - now;
+            if (pause <= 0 && inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            long remaining = deadlineNanos - now;
+            if (remaining <= 0 || pausedUntil - deadlineNanos >= 0) {
+                return false;
+            }
+            long waitNanos = pause > 0 ? Math.min(pause, remaining) : remaining;
+            wait(Math.max(1, waitNanos / 1_000_000));
+        }
+    }
+
+    public synchronized void release(Outcome outcome, long backoffNanos) {
+        inFlight--;
+        switch (outcome) {
+            case SUCCESS -> limit = Math.min(max, limit + 1.0 / limit);
+            case THROTTLED -> {
+                limit = Math.max(min, limit / 2);
+                pausedUntil = Math.max(pausedUntil, clock.getAsLong() + backoffNanos);
+            }
+            case OVERLOADED -> limit = Math.max(min, limit * 0.75);
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
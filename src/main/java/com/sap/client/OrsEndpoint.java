@@ -0,0 +1,21 @@
+package com.sap.client;
+
+import com.sap.metrics.Co2Metrics;
+
+public enum OrsEndpoint {
+    GEOCODE(Co2Metrics.GEOCODE),
+    MATRIX(Co2Metrics.MATRIX);
+
+    private final String stage;
+
+    OrsEndpoint(String stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Metrics stage name of calls to this endpoint.
+     */
+    public String stage() {
+        return stage;
+    }
+}
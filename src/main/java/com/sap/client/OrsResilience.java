@@ -0,0 +1,253 @@
+package com.sap.client;
+
+import com.sap.exception.CircuitOpenException;
+import com.sap.exception.InternalServerErrorException;
+import com.sap.exception.NetworkException;
+import com.sap.metrics.Co2Metrics;
+import com.sap.utility.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fault handling around provider lookups, outside the {@link OrsThrottle}:
+ * <ul>
+ *     <li>transient failures ({@link NetworkException}, {@link InternalServerErrorException}) are
+ *     retried up to {@code maxAttempts} times with full-jitter exponential backoff</li>
+ *     <li>optionally, an attempt still running after {@code hedgeDelay} is raced by a second,
+ *     identical request and the first success wins</li>
+ *     <li>a per-endpoint {@link CircuitBreaker} refuses calls with {@link CircuitOpenException}
+ *     while the provider keeps failing, so an outage costs nothing instead of a connect timeout</li>
+ * </ul>
+ * Both ORS calls are read-only lookups, so retrying or duplicating them is safe. Other
+ * failures such as an unknown city or a bad API key are returned at once.
+ * <p>
+ * {@link #callAsync} is the non-blocking variant: it shares the circuit breakers and schedules
+ * retries after the same jittered delays instead of sleeping. It does not hedge.
+ */
+@Component
+public class OrsResilience {
+
+    private final Map<OrsEndpoint, CircuitBreaker> breakers = new EnumMap<>(OrsEndpoint.class);
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long hedgeDelayMillis;
+    @Getter
+    private final boolean serveStale;
+    private final ExecutorService hedgeExecutor;
+    private final Co2Metrics metrics;
+    private final MessageSource messageSource;
+
+    @Autowired
+    public OrsResilience(@Value("${ORS_RETRY_MAX_ATTEMPTS:3}") int maxAttempts,
+                         @Value("${ORS_RETRY_BASE_DELAY_MS:200}") long baseDelayMillis,
+                         @Value("${ORS_RETRY_MAX_DELAY_MS:2000}") long maxDelayMillis,
+                         @Value("${ORS_HEDGE_ENABLED:false}") boolean hedgeEnabled,
+                         @Value("${ORS_HEDGE_DELAY_MS:1000}") long hedgeDelayMillis,
+                         @Value("${ORS_CIRCUIT_FAILURE_THRESHOLD:5}") int failureThreshold,
+                         @Value("${ORS_CIRCUIT_OPEN_MS:30000}") long openMillis,
+                         @Value("${ORS_CIRCUIT_SERVE_STALE:true}") boolean serveStale,
+                         Co2Metrics metrics,
+                         MessageSource messageSource) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.hedgeDelayMillis = hedgeEnabled ? hedgeDelayMillis : -1;
+        this.serveStale = serveStale;
+        this.hedgeExecutor = hedgeEnabled ? Executors.newCachedThreadPool(new NamedThreadFactory("ors-hedge")) : null;
+        this.metrics = metrics;
+        this.messageSource = messageSource;
+        for (OrsEndpoint endpoint : OrsEndpoint.values()) {
+            CircuitBreaker breaker = new CircuitBreaker(failureThreshold, TimeUnit.MILLISECONDS.toNanos(openMillis));
+            breakers.put(endpoint, breaker);
+            metrics.monitorGauge("co2.circuit.open", endpoint.stage(), () -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1);
+        }
+    }
+
+    /**
+     * Single attempt, no hedging and a breaker that never opens, for code paths built outside the Spring context.
+     */
+    public static OrsResilience disabled() {
+        return new OrsResilience(1, 0, 0, false, 0, Integer.MAX_VALUE, 0, false, Co2Metrics.standalone(), new StaticMessageSource());
+    }
+
+    public <T> T call(OrsEndpoint endpoint, Supplier<T> request) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                throw new CircuitOpenException(buildErrorMessage("ors.circuit.open", endpoint.stage()), null);
+            }
+            try {
+                T result = hedgeDelayMillis >= 0 ? hedged(endpoint, request) : request.get();
+                breaker.onSuccess();
+                return result;
+            } catch (NetworkException | InternalServerErrorException e) {
+                breaker.onFailure();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                metrics.recordError(endpoint.stage(), e);
+                backoff(endpoint, attempt);
+            } catch (RuntimeException e) {
+                // The provider answered (not found, forbidden, throttled): it is up.
+                breaker.onSuccess();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Runs {@code request} with retries and circuit breaking, without blocking the caller.
+     * Cancelling the returned future, or completing it on a timeout, cancels the attempt in
+     * progress; a cancelled attempt counts neither as a success nor as a failure.
+     */
+    public <T> CompletableFuture<T> callAsync(OrsEndpoint endpoint, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(endpoint, request, 1, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(OrsEndpoint endpoint, Supplier<CompletableFuture<T>> request, int attempt, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (!breaker.allowRequest()) {
+            result.completeExceptionally(new CircuitOpenException(buildErrorMessage("ors.circuit.open", endpoint.stage()), null));
+            return;
+        }
+        CompletableFuture<T> call;
+        try {
+            call = request.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> attemptCall = call;
+        result.whenComplete((value, error) -> attemptCall.cancel(true));
+        call.whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null) {
+                breaker.onSuccess();
+                result.complete(value);
+            } else if (cause instanceof CancellationException) {
+                breaker.onCancel();
+                result.completeExceptionally(cause);
+            } else if (cause instanceof NetworkException || cause instanceof InternalServerErrorException) {
+                breaker.onFailure();
+                if (attempt >= maxAttempts || result.isDone()) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                metrics.recordError(endpoint.stage(), cause);
+                CompletableFuture.delayedExecutor(jitteredDelay(attempt), TimeUnit.MILLISECONDS)
+                        .execute(() -> attemptAsync(endpoint, request, attempt + 1, result));
+            } else {
+                breaker.onSuccess();
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private void backoff(OrsEndpoint endpoint, int attempt) {
+        long delay = jitteredDelay(attempt);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetworkException(buildErrorMessage("ors.retry.interrupted", endpoint.stage()), e);
+        }
+    }
+
+    private long jitteredDelay(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Runs the request and, if it has not finished after the hedge delay, a second copy of it.
+     * Returns the first success; fails only when every started copy failed, with the first failure.
+     */
+    private <T> T hedged(OrsEndpoint endpoint, Supplier<T> request) {
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(request, hedgeExecutor);
+        CompletableFuture<T> race;
+        try {
+            return primary.get(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException slow) {
+            metrics.count("co2.hedges", endpoint.stage());
+            race = firstSuccess(primary, CompletableFuture.supplyAsync(request, hedgeExecutor));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            throw new NetworkException(buildErrorMessage("ors.retry.interrupted", endpoint.stage()), e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+
+        try {
+            return race.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> candidate : List.of(first, second)) {
+            candidate.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(first.handle((v, firstError) -> firstError).join());
+                }
+            });
+        }
+        return winner;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new InternalServerErrorException(String.valueOf(cause));
+    }
+
+    private String buildErrorMessage(String key, Object... args) {
+        String defaultMsg = "An error occurred [" + key + "]";
+        return messageSource.getMessage("error." + key, args, defaultMsg, LocaleContextHolder.getLocale());
+    }
+}
@@ -0,0 +1,105 @@
+package com.sap.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sap.utility.AppConstants;
+
+import java.io.IOException;
+
+/**
+ * Streaming extraction of the few fields the calculator needs from OpenRouteService responses.
+ * Nothing but the target values is materialized: unrelated sub-trees are skipped token by token
+ * and reading stops as soon as the requested values have been read.
+ * <p>
+ * Every method expects the parser to be positioned on the root token of the document.
+ */
+public final class OrsResponseParser {
+
+    private OrsResponseParser() {
+    }
+
+    /**
+     * Reads {@code features[0].geometry.coordinates} of a geocode response.
+     *
+     * @return {@code null} if the response has no features, otherwise the numeric coordinates
+     * found for the first feature, which may be fewer than two if the feature is malformed
+     */
+    public static double[] readFirstFeatureCoordinates(JsonParser parser) throws IOException {
+        if (!moveToField(parser, AppConstants.FEATURES) || parser.nextToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (first != JsonToken.START_OBJECT || !moveToFieldInObject(parser, AppConstants.GEOMETRY)
+                || parser.nextToken() != JsonToken.START_OBJECT || !moveToFieldInObject(parser, AppConstants.COORDINATES)
+                || parser.nextToken() != JsonToken.START_ARRAY) {
+            return new double[0];
+        }
+
+        double[] values = new double[2];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token.isStructStart()) {
+                parser.skipChildren();
+            } else if (count < values.length) {
+                values[count++] = parser.getValueAsDouble();
+            }
+        }
+        return count == values.length ? values : new double[0];
+    }
+
+    /**
+     * Reads the top-left {@code rows} x {@code cols} block of the {@code distances} array of a
+     * matrix response straight into a primitive array. {@code null} entries (no route) read as 0.
+     *
+     * @return {@code null} if the response has no distances or fewer rows or columns than requested
+     */
+    public static double[][] readDistances(JsonParser parser, int rows, int cols) throws IOException {
+        if (!moveToField(parser, AppConstants.DISTANCES) || parser.nextToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+
+        double[][] distances = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return null;
+            }
+            int j = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token.isStructStart()) {
+                    parser.skipChildren();
+                } else if (j < cols) {
+                    distances[i][j] = parser.getValueAsDouble();
+                }
+                j++;
+            }
+            if (j < cols) {
+                return null;
+            }
+        }
+        return distances;
+    }
+
+    private static boolean moveToField(JsonParser parser, String name) throws IOException {
+        return parser.currentToken() == JsonToken.START_OBJECT && moveToFieldInObject(parser, name);
+    }
+
+    /**
+     * Advances through the fields of the current object until {@code name} is reached,
+     * skipping the values of all other fields. Leaves the parser on the field name.
+     */
+    private static boolean moveToFieldInObject(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.currentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
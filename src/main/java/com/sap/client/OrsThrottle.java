@@ -0,0 +1,178 @@
+package com.sap.client;
+
+import com.sap.exception.InternalServerErrorException;
+import com.sap.exception.NetworkException;
+import com.sap.exception.TooManyRequestsException;
+import com.sap.metrics.Co2Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Client-side flow control for OpenRouteService. Every call to an endpoint first takes a permit
+ * from that endpoint's per-minute {@link TokenBucket} and then a slot from its
+ * {@link AdaptiveConcurrencyLimit}. A 429 halves the concurrency, pauses the endpoint for the
+ * provider's {@code Retry-After} and retries the call; 5xx and network failures reduce concurrency
+ * without retrying. Callers therefore converge on the highest rate the provider sustains instead
+ * of failing partway through a run.
+ * <p>
+ * {@link #callAsync} applies the same rate budget and 429 back-off to non-blocking requests by
+ * delaying their start instead of sleeping. It does not take a concurrency slot: the adaptive
+ * limit bounds blocked caller threads, while asynchronous requests hold no thread while they wait.
+ */
+@Component
+public class OrsThrottle {
+
+    private final Map<OrsEndpoint, TokenBucket> buckets = new EnumMap<>(OrsEndpoint.class);
+    private final Map<OrsEndpoint, AdaptiveConcurrencyLimit> limits = new EnumMap<>(OrsEndpoint.class);
+    private final long maxWaitNanos;
+    private final int maxRetries;
+    private final long defaultBackoffMillis;
+    private final Co2Metrics metrics;
+    private final MessageSource messageSource;
+
+    @Autowired
+    public OrsThrottle(@Value("${ORS_GEOCODE_RATE_PER_MINUTE:100}") double geocodeRatePerMinute,
+                       @Value("${ORS_MATRIX_RATE_PER_MINUTE:40}") double matrixRatePerMinute,
+                       @Value("${ORS_RATE_BURST:10}") int burst,
+                       @Value("${ORS_MIN_CONCURRENCY:1}") int minConcurrency,
+                       @Value("${ORS_MAX_CONCURRENCY:16}") int maxConcurrency,
+                       @Value("${ORS_THROTTLE_MAX_WAIT_MS:60000}") long maxWaitMs,
+                       @Value("${ORS_THROTTLE_MAX_RETRIES:3}") int maxRetries,
+                       @Value("${ORS_THROTTLE_DEFAULT_BACKOFF_MS:1000}") long defaultBackoffMillis,
+                       Co2Metrics metrics,
+                       MessageSource messageSource) {
+        this.buckets.put(OrsEndpoint.GEOCODE, new TokenBucket(geocodeRatePerMinute, burst));
+        this.buckets.put(OrsEndpoint.MATRIX, new TokenBucket(matrixRatePerMinute, burst));
+        for (OrsEndpoint endpoint : OrsEndpoint.values()) {
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(minConcurrency, maxConcurrency);
+            limits.put(endpoint, limit);
+            metrics.monitorGauge("co2.concurrency.limit", endpoint.stage(), limit::getLimit);
+        }
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxRetries = maxRetries;
+        this.defaultBackoffMillis = defaultBackoffMillis;
+        this.metrics = metrics;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * No rate budget and a fixed high concurrency ceiling, for code paths built outside the Spring context.
+     */
+    public static OrsThrottle unlimited() {
+        return new OrsThrottle(0, 0, 1, 1024, 1024, 60000, 0, 1000, Co2Metrics.standalone(), new StaticMessageSource());
+    }
+
+    public <T> T call(OrsEndpoint endpoint, Supplier<T> request) {
+        AdaptiveConcurrencyLimit limit = limits.get(endpoint);
+        for (int attempt = 0; ; attempt++) {
+            acquire(endpoint, limit);
+            try {
+                T result = request.get();
+                limit.release(AdaptiveConcurrencyLimit.Outcome.SUCCESS, 0);
+                return result;
+            } catch (TooManyRequestsException e) {
+                long backoffMillis = e.getRetryAfterMillis() > 0 ? e.getRetryAfterMillis() : defaultBackoffMillis;
+                limit.release(AdaptiveConcurrencyLimit.Outcome.THROTTLED, TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                metrics.recordError(endpoint.stage(), e);
+            } catch (InternalServerErrorException | NetworkException e) {
+                limit.release(AdaptiveConcurrencyLimit.Outcome.OVERLOADED, 0);
+                throw e;
+            } catch (RuntimeException e) {
+                limit.release(AdaptiveConcurrencyLimit.Outcome.SUCCESS, 0);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Starts {@code request} once a rate permit is available, without blocking the caller, and
+     * restarts it after the provider's {@code Retry-After} when it fails with a 429. Cancelling
+     * the returned future cancels the attempt in progress.
+     */
+    public <T> CompletableFuture<T> callAsync(OrsEndpoint endpoint, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(endpoint, request, 0, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(OrsEndpoint endpoint, Supplier<CompletableFuture<T>> request, int attempt, CompletableFuture<T> result) {
+        long wait = buckets.get(endpoint).reserve(maxWaitNanos);
+        if (wait < 0) {
+            result.completeExceptionally(throttled(endpoint));
+            return;
+        }
+        Executor start = wait > 0 ? CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS) : Runnable::run;
+        start.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<T> call = invoke(request);
+            result.whenComplete((value, error) -> call.cancel(true));
+            call.whenComplete((value, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause == null) {
+                    result.complete(value);
+                } else if (cause instanceof TooManyRequestsException e && attempt < maxRetries && !result.isDone()) {
+                    metrics.recordError(endpoint.stage(), e);
+                    long backoffMillis = e.getRetryAfterMillis() > 0 ? e.getRetryAfterMillis() : defaultBackoffMillis;
+                    CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS)
+                            .execute(() -> attemptAsync(endpoint, request, attempt + 1, result));
+                } else {
+                    result.completeExceptionally(cause);
+                }
+            });
+        });
+    }
+
+    private static <T> CompletableFuture<T> invoke(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void acquire(OrsEndpoint endpoint, AdaptiveConcurrencyLimit limit) {
+        long start = System.nanoTime();
+        long wait = buckets.get(endpoint).reserve(maxWaitNanos);
+        if (wait < 0) {
+            throw throttled(endpoint);
+        }
+        try {
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (!limit.acquire(start + maxWaitNanos)) {
+                throw throttled(endpoint);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetworkException(buildErrorMessage("ors.interrupted", endpoint.stage()), e);
+        }
+        metrics.recordTime("throttle", System.nanoTime() - start);
+    }
+
+    private TooManyRequestsException throttled(OrsEndpoint endpoint) {
+        return new TooManyRequestsException(buildErrorMessage("ors.throttled", endpoint.stage(), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos)), 0);
+    }
+
+    private String buildErrorMessage(String key, Object... args) {
+        String defaultMsg = "An error occurred [" + key + "]";
+        return messageSource.getMessage("error." + key, args, defaultMsg, LocaleContextHolder.getLocale());
+    }
+}
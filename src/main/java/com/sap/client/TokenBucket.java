@@ -0,0 +1,55 @@
+package com.sap.client;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that hands out permits at a steady rate with a bounded burst. Callers reserve a
+ * permit and then wait, outside any lock, for the returned delay; reservations made while the
+ * bucket is empty queue up behind each other, so the long-run rate never exceeds the budget.
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier clock;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerMinute sustained rate; 0 or less means unlimited
+     * @param burst            permits available at once after an idle period
+     */
+    public TokenBucket(double permitsPerMinute, int burst, LongSupplier nanoClock) {
+        this.permitsPerNano = permitsPerMinute / 60e9;
+        this.capacity = Math.max(1, burst);
+        this.clock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    public TokenBucket(double permitsPerMinute, int burst) {
+        this(permitsPerMinute, burst, System::nanoTime);
+    }
+
+    /**
+     * Reserves one permit if it becomes available within {@code maxWaitNanos}.
+     *
+     * @return nanoseconds the caller has to wait before using the permit, or -1 if the wait
+     * would exceed {@code maxWaitNanos} (nothing is reserved in that case)
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+
+        long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+}
@@ -1,18 +1,111 @@
 package com.sap.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.utility.NamedThreadFactory;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Pooled keep-alive client shared by all provider calls. Gzip/deflate responses are
+     * requested and decoded transparently by the client's default content compression.
+     * The client still retries idempotent requests once after an I/O failure such as a stale
+     * pooled connection, but never on a 429/503 status: those are left to {@link com.sap.client.OrsThrottle}.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(@Value("${HTTP_MAX_CONNECTIONS:100}") int maxConnections,
+                                          @Value("${HTTP_MAX_CONNECTIONS_PER_ROUTE:20}") int maxConnectionsPerRoute,
+                                          @Value("${HTTP_CONNECT_TIMEOUT_MS:5000}") long connectTimeoutMs,
+                                          @Value("${HTTP_READ_TIMEOUT_MS:15000}") long readTimeoutMs,
+                                          @Value("${HTTP_POOL_ACQUIRE_TIMEOUT_MS:5000}") long poolAcquireTimeoutMs,
+                                          @Value("${HTTP_KEEP_ALIVE_SECONDS:30}") long keepAliveSeconds) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setConnectionKeepAlive(TimeValue.ofSeconds(keepAliveSeconds))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setRetryStrategy(new DefaultHttpRequestRetryStrategy(1, TimeValue.ofSeconds(1)) {
+                    @Override
+                    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+                        return false;
+                    }
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService geocodeExecutor(@Value("${GEOCODE_CONCURRENCY:16}") int concurrency) {
+        return Executors.newFixedThreadPool(concurrency, new NamedThreadFactory("geocode"));
+    }
+
+    /**
+     * Completion threads of the non-blocking client. They only parse responses and chain the next
+     * stage, so a handful serve thousands of requests in flight.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService orsAsyncExecutor(@Value("${ORS_ASYNC_THREADS:4}") int threads) {
+        return Executors.newFixedThreadPool(threads, new NamedThreadFactory("ors-async"));
+    }
+
+    /**
+     * Non-blocking JDK client for {@link com.sap.service.AsyncCo2CalculatorService}. It negotiates
+     * HTTP/2 where the provider offers it, so concurrent requests share a few multiplexed connections.
+     */
+    @Bean
+    public HttpClient orsAsyncHttpClient(@Qualifier("orsAsyncExecutor") ExecutorService orsAsyncExecutor,
+                                         @Value("${HTTP_CONNECT_TIMEOUT_MS:5000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(orsAsyncExecutor)
+                .build();
     }
 
     @Bean
@@ -0,0 +1,126 @@
+package com.sap.config;
+
+import com.sap.model.EmissionTable;
+import com.sap.model.TransportMethod;
+import com.sap.utility.NamedThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads emission factors from {@code EMISSION_FACTORS_FILE}, a properties file of
+ * {@code method = grams CO2 per km} lines, on top of the built-in table and installs them with
+ * {@link TransportMethod#install}. Listed built-in methods get the new rate, unknown names are added
+ * as new methods (in alphabetical order after the methods already known), and built-ins that are not
+ * listed keep their default.
+ * <p>
+ * Every reload starts from the installed table, so a method keeps its ordinal for the life of the
+ * process and ordinals resolved for the bulk {@code calculateCo2Kg} stay valid across hot swaps. For
+ * the same reason an added method that is later dropped from the file stays available with its last
+ * rate until the next restart.
+ * <p>
+ * With {@code EMISSION_FACTORS_RELOAD_SECONDS > 0} the file is checked at that interval and
+ * re-applied when its modification time or size changes, without a restart. A file that contains
+ * an invalid line is rejected as a whole and the current factors stay in place until it changes again.
+ * <p>
+ * Nothing depends on this bean, so it opts out of lazy initialization to load the file at startup.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class EmissionFactorLoader {
+
+    private final Path file;
+    private final long reloadSeconds;
+    private ScheduledExecutorService scheduler;
+    private Object loadedVersion;
+
+    public EmissionFactorLoader(@Value("${EMISSION_FACTORS_FILE:}") String file,
+                                @Value("${EMISSION_FACTORS_RELOAD_SECONDS:30}") long reloadSeconds) {
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.reloadSeconds = reloadSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (file == null) {
+            return;
+        }
+        reload();
+        if (reloadSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("emission-reload"));
+            scheduler.scheduleWithFixedDelay(this::reload, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies the file if it changed since the last successful load.
+     *
+     * @return {@code true} if a new table was installed
+     */
+    public synchronized boolean reload() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Object version = attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+            if (Objects.equals(version, loadedVersion)) {
+                return false;
+            }
+            loadedVersion = version;
+
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            Map<String, Integer> rates = new LinkedHashMap<>();
+            for (String method : properties.stringPropertyNames().stream().sorted().toList()) {
+                rates.put(method, Integer.parseInt(properties.getProperty(method).trim()));
+            }
+
+            EmissionTable builtIn = EmissionTable.builtIn();
+            Map<String, Integer> effective = new LinkedHashMap<>();
+            for (String method : builtIn.methods()) {
+                effective.put(method, builtIn.rate(builtIn.ordinal(method)));
+            }
+            effective.putAll(rates);
+            EmissionTable current = TransportMethod.table();
+            List<String> dropped = current.methods().stream().filter(method -> !effective.containsKey(method)).toList();
+            if (!dropped.isEmpty()) {
+                log.warn("Emission factors for {} are no longer in {}; they stay available until restart", dropped, file);
+            }
+
+            EmissionTable table = current.withRates(effective);
+            TransportMethod.install(table);
+            log.info("Loaded {} emission factors from {} ({} methods available)", rates.size(), file, table.size());
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Keeping current emission factors; could not apply {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sap.controller;
+
+import com.sap.batch.TripBatchProcessor;
+import com.sap.exception.BadRequestException;
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.model.dto.ItineraryRequestDTO;
+import com.sap.model.dto.ItineraryResponseDTO;
+import com.sap.model.dto.TripResultDTO;
+import com.sap.service.AsyncCo2CalculatorService;
+import com.sap.service.Co2CalculatorService;
+import com.sap.utility.AppConstants;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP front end for server mode ({@code --server}). The single-trip endpoints answer errors
+ * through {@link com.sap.exception.GlobalExceptionHandler}; the bulk endpoint reports failures
+ * per trip, like batch mode, so one bad trip never fails the whole request. The async endpoint
+ * releases the request thread while the provider calls are outstanding.
+ */
+@RestController
+@RequestMapping(AppConstants.API_CO2)
+public class Co2Controller {
+
+    private final Co2CalculatorService co2Service;
+    private final AsyncCo2CalculatorService asyncCo2Service;
+    private final TripBatchProcessor batchProcessor;
+    private final MessageSource messageSource;
+    private final int bulkMaxTrips;
+
+    public Co2Controller(Co2CalculatorService co2Service,
+                         AsyncCo2CalculatorService asyncCo2Service,
+                         TripBatchProcessor batchProcessor,
+                         MessageSource messageSource,
+                         @Value("${BULK_MAX_TRIPS:10000}") int bulkMaxTrips) {
+        this.co2Service = co2Service;
+        this.asyncCo2Service = asyncCo2Service;
+        this.batchProcessor = batchProcessor;
+        this.messageSource = messageSource;
+        this.bulkMaxTrips = bulkMaxTrips;
+    }
+
+    @PostMapping("/" + AppConstants.CALCULATE)
+    public Co2CalculateResponseDTO calculate(@Valid @RequestBody Co2CalculateRequestDTO request) throws Exception {
+        double distanceKm = co2Service.getDistanceKm(request.getStart(), request.getEnd());
+        double co2Kg = co2Service.calculateCo2Kg(distanceKm, request.getTransportationMethod());
+        return new Co2CalculateResponseDTO(request.getStart(), request.getEnd(), request.getTransportationMethod(), distanceKm, co2Kg);
+    }
+
+    @PostMapping("/" + AppConstants.CALCULATE + "/" + AppConstants.ASYNC)
+    public CompletableFuture<Co2CalculateResponseDTO> calculateAsync(@Valid @RequestBody Co2CalculateRequestDTO request) {
+        return asyncCo2Service.calculateAsync(request.getStart(), request.getEnd(), request.getTransportationMethod());
+    }
+
+    @PostMapping("/" + AppConstants.ITINERARY)
+    public ItineraryResponseDTO calculateItinerary(@Valid @RequestBody ItineraryRequestDTO request) {
+        return co2Service.calculateItinerary(request.getStops(), request.getTransportationMethods());
+    }
+
+    @PostMapping("/" + AppConstants.CALCULATE + "/" + AppConstants.BULK)
+    public List<TripResultDTO> calculateBulk(@RequestBody List<Co2CalculateRequestDTO> requests) {
+        if (requests.size() > bulkMaxTrips) {
+            throw new BadRequestException(messageSource.getMessage("error.bulk.too.large",
+                    new Object[]{requests.size(), bulkMaxTrips},
+                    "Too many trips in one request: " + requests.size() + " (max " + bulkMaxTrips + ")",
+                    LocaleContextHolder.getLocale()));
+        }
+        return batchProcessor.process(requests);
+    }
+}
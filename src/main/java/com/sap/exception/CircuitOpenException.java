@@ -0,0 +1,10 @@
+package com.sap.exception;
+
+/**
+ * Thrown without contacting the provider while its circuit breaker is open.
+ */
+public class CircuitOpenException extends NetworkException {
+    public CircuitOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.sap.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class TooManyRequestsException extends ApiException {
+    private final long retryAfterMillis;
+
+    public TooManyRequestsException(String message, long retryAfterMillis) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
@@ -0,0 +1,183 @@
+package com.sap.metrics;
+
+import com.sap.cache.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stage-level instrumentation of the calculation pipeline, published to the application's
+ * {@link MeterRegistry}:
+ * <ul>
+ *     <li>{@code co2.stage} – timer per stage, with p50/p95/p99: {@code trip} (a whole distance lookup),
+ *     {@code geocode} and {@code matrix} (one provider call each) and {@code parse} (reading a response
+ *     body; bodies are streamed, so this includes transfer time after the headers)</li>
+ *     <li>{@code co2.errors} – failures per stage and exception type</li>
+ *     <li>{@code co2.inflight} – calls currently running per stage</li>
+ *     <li>{@code co2.concurrency.limit} – current adaptive concurrency limit per provider endpoint</li>
+ *     <li>{@code co2.circuit.open} – 1 while an endpoint's circuit breaker is not closed</li>
+ *     <li>{@code co2.hedges} – hedged second requests started per endpoint</li>
+ *     <li>{@code co2.coalesced} – lookups that joined an identical one already in flight</li>
+ *     <li>{@code co2.gazetteer.hits} – cities resolved by the offline gazetteer instead of the provider</li>
+ *     <li>{@code co2.distance.estimated} – trips answered with the great-circle estimate after a failed matrix call</li>
+ *     <li>{@code co2.cache.*} – hit ratio, size and evictions per cache</li>
+ * </ul>
+ * In server mode these are served under {@code /actuator/metrics}; CLI runs print {@link #summary()}.
+ */
+@Component
+public class Co2Metrics {
+
+    public static final String TRIP = "trip";
+    public static final String GEOCODE = "geocode";
+    public static final String MATRIX = "matrix";
+    public static final String PARSE = "parse";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<CacheStats>> caches = new ConcurrentHashMap<>();
+
+    public Co2Metrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Metrics kept in a private registry, for code paths built outside the Spring context.
+     */
+    public static Co2Metrics standalone() {
+        return new Co2Metrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Runs {@code call} as one occurrence of {@code stage}: counts it in flight, times it and,
+     * if it throws, counts the exception type before rethrowing.
+     */
+    public <T> T record(String stage, Supplier<T> call) {
+        AtomicInteger active = inFlight(stage);
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            recordError(stage, e);
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            timer(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Like {@link #record}, for a call that completes asynchronously: the stage stays in flight
+     * until the returned future, which is the one {@code call} produced, completes.
+     */
+    public <T> CompletableFuture<T> recordAsync(String stage, Supplier<CompletableFuture<T>> call) {
+        AtomicInteger active = inFlight(stage);
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            active.decrementAndGet();
+            timer(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                recordError(stage, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return future;
+    }
+
+    public void recordTime(String stage, long nanos) {
+        timer(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(String stage, Throwable error) {
+        Counter.builder("co2.errors")
+                .tag("stage", stage)
+                .tag("exception", error.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    public void count(String name, String stage) {
+        registry.counter(name, "stage", stage).increment();
+    }
+
+    public void monitorCache(String name, Supplier<CacheStats> stats) {
+        if (caches.putIfAbsent(name, stats) != null) {
+            return;
+        }
+        Gauge.builder("co2.cache.hit.ratio", stats, s -> s.get().getHitRatio()).tag("cache", name).strongReference(true).register(registry);
+        Gauge.builder("co2.cache.size", stats, s -> s.get().getSize()).tag("cache", name).strongReference(true).register(registry);
+        Gauge.builder("co2.cache.evictions", stats, s -> s.get().getEvictions()).tag("cache", name).strongReference(true).register(registry);
+    }
+
+    public void monitorGauge(String name, String stage, Supplier<Number> value) {
+        Gauge.builder(name, value, v -> v.get().doubleValue()).tag("stage", stage).strongReference(true).register(registry);
+    }
+
+    /**
+     * Human-readable table of every stage seen so far, followed by error counts and cache statistics.
+     */
+    public String summary() {
+        StringBuilder out = new StringBuilder(String.format("%-10s %8s %10s %10s %10s %10s%n",
+                "stage", "count", "mean ms", "p50 ms", "p99 ms", "max ms"));
+        new TreeMap<>(timers).forEach((stage, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            out.append(String.format("%-10s %8d %10.2f %10.2f %10.2f %10.2f%n", stage, snapshot.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS), percentile(snapshot, 0.5), percentile(snapshot, 0.99),
+                    snapshot.max(TimeUnit.MILLISECONDS)));
+        });
+
+        Map<String, Long> errors = new TreeMap<>();
+        registry.find("co2.errors").counters().forEach(counter -> errors.put(
+                counter.getId().getTag("stage") + "/" + counter.getId().getTag("exception"), (long) counter.count()));
+        if (!errors.isEmpty()) {
+            out.append("errors: ").append(errors).append(System.lineSeparator());
+        }
+
+        new TreeMap<>(caches).forEach((name, stats) ->
+                out.append(name).append(" cache: ").append(stats.get()).append(System.lineSeparator()));
+        return out.toString();
+    }
+
+    private Timer timer(String stage) {
+        return timers.computeIfAbsent(stage, name -> Timer.builder("co2.stage")
+                .tag("stage", name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry));
+    }
+
+    private AtomicInteger inFlight(String stage) {
+        return inFlight.computeIfAbsent(stage, name -> registry.gauge("co2.inflight",
+                Tags.of("stage", name), new AtomicInteger()));
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+}
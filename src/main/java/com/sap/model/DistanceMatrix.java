@@ -0,0 +1,22 @@
+package com.sap.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Distances, and optionally CO2 emissions, from every origin to every destination.
+ * Row {@code i} belongs to {@code origins.get(i)} and column {@code j} to {@code destinations.get(j)}.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DistanceMatrix {
+    private final List<String> origins;
+    private final List<String> destinations;
+    private final double[][] distancesKm;
+    private final String transportationMethod;
+    private final double[][] co2Kg;
+}
@@ -0,0 +1,139 @@
+package com.sap.model;
+
+import com.sap.utility.AppConstants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable emission factors in g CO2 per km, indexed by method ordinal. Method names resolve to
+ * ordinals through a small open-addressing table (one hash, usually one {@code equals}), and rates
+ * are plain {@code int}s, so neither lookup allocates.
+ * <p>
+ * The built-in methods keep ordinals 0..13 in every table; {@link #withRates} can change their
+ * rates and appends new methods after them.
+ */
+public final class EmissionTable {
+
+    private static final EmissionTable BUILT_IN = new EmissionTable(
+            new String[]{
+                    AppConstants.DIESEL_CAR_SMALL,
+                    AppConstants.PETROL_CAR_SMALL,
+                    AppConstants.PLUGIN_HYBRID_CAR_SMALL,
+                    AppConstants.ELECTRIC_CAR_SMALL,
+                    AppConstants.DIESEL_CAR_MEDIUM,
+                    AppConstants.PETROL_CAR_MEDIUM,
+                    AppConstants.PLUGIN_HYBRID_CAR_MEDIUM,
+                    AppConstants.ELECTRIC_CAR_MEDIUM,
+                    AppConstants.DIESEL_CAR_LARGE,
+                    AppConstants.PETROL_CAR_LARGE,
+                    AppConstants.PLUGIN_HYBRID_CAR_LARGE,
+                    AppConstants.ELECTRIC_CAR_LARGE,
+                    AppConstants.BUS_DEFAULT,
+                    AppConstants.TRAIN_DEFAULT
+            },
+            new int[]{142, 154, 73, 50, 171, 192, 110, 58, 209, 282, 126, 73, 27, 6});
+
+    private final String[] methods;
+    private final int[] rates;
+    private final String[] slots;
+    private final int[] slotOrdinals;
+    private final int mask;
+    private final Set<String> names;
+
+    private EmissionTable(String[] methods, int[] rates) {
+        this.methods = methods;
+        this.rates = rates;
+        int capacity = Integer.highestOneBit(Math.max(16, methods.length * 4 - 1)) << 1;
+        this.slots = new String[capacity];
+        this.slotOrdinals = new int[capacity];
+        this.mask = capacity - 1;
+        for (int ordinal = 0; ordinal < methods.length; ordinal++) {
+            int slot = spread(methods[ordinal].hashCode()) & mask;
+            while (slots[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = methods[ordinal];
+            slotOrdinals[slot] = ordinal;
+        }
+        this.names = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(methods)));
+    }
+
+    public static EmissionTable builtIn() {
+        return BUILT_IN;
+    }
+
+    /**
+     * Returns a table with the given rates: existing methods keep their ordinals, new ones are
+     * appended in iteration order.
+     *
+     * @throws IllegalArgumentException for blank names or negative rates
+     */
+    public EmissionTable withRates(Map<String, Integer> overrides) {
+        Map<String, Integer> merged = new LinkedHashMap<>();
+        for (int i = 0; i < methods.length; i++) {
+            merged.put(methods[i], rates[i]);
+        }
+        overrides.forEach((method, rate) -> {
+            if (method == null || method.isBlank() || rate == null || rate < 0) {
+                throw new IllegalArgumentException("Invalid emission factor: " + method + "=" + rate);
+            }
+            merged.put(method.trim(), rate);
+        });
+        return new EmissionTable(merged.keySet().toArray(new String[0]),
+                merged.values().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns the ordinal of the method, or -1 if it is unknown.
+     */
+    public int ordinal(String method) {
+        if (method == null) {
+            return -1;
+        }
+        int slot = spread(method.hashCode()) & mask;
+        String candidate;
+        while ((candidate = slots[slot]) != null) {
+            if (candidate.equals(method)) {
+                return slotOrdinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the rate for an ordinal.
+     *
+     * @throws ArrayIndexOutOfBoundsException for an unknown ordinal
+     */
+    public int rate(int ordinal) {
+        return rates[ordinal];
+    }
+
+    /**
+     * Returns the method name for an ordinal, or {@code null} if it is out of range.
+     */
+    public String method(int ordinal) {
+        return ordinal >= 0 && ordinal < methods.length ? methods[ordinal] : null;
+    }
+
+    public int size() {
+        return methods.length;
+    }
+
+    /**
+     * Method names in ordinal order, unmodifiable.
+     */
+    public Set<String> methods() {
+        return names;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,41 +1,54 @@
 package com.sap.model;
 
 
-import com.sap.utility.AppConstants;
-
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
+/**
+ * Current emission factors. Readers take the {@link EmissionTable} snapshot that is installed at
+ * the time; {@link #install} swaps in a new table atomically, so a reader sees either the old or
+ * the new factors, never a mix. Code that needs several lookups to agree should call
+ * {@link #table()} once and use that snapshot.
+ */
 public class TransportMethod {
-    private static final Map<String, Integer> EMISSION_MAP = new HashMap<>();
-
-    static {
-        EMISSION_MAP.put(AppConstants.DIESEL_CAR_SMALL, 142);
-        EMISSION_MAP.put(AppConstants.PETROL_CAR_SMALL, 154);
-        EMISSION_MAP.put(AppConstants.PLUGIN_HYBRID_CAR_SMALL, 73);
-        EMISSION_MAP.put(AppConstants.ELECTRIC_CAR_SMALL, 50);
-        EMISSION_MAP.put(AppConstants.DIESEL_CAR_MEDIUM, 171);
-        EMISSION_MAP.put(AppConstants.PETROL_CAR_MEDIUM, 192);
-        EMISSION_MAP.put(AppConstants.PLUGIN_HYBRID_CAR_MEDIUM, 110);
-        EMISSION_MAP.put(AppConstants.ELECTRIC_CAR_MEDIUM, 58);
-        EMISSION_MAP.put(AppConstants.DIESEL_CAR_LARGE, 209);
-        EMISSION_MAP.put(AppConstants.PETROL_CAR_LARGE, 282);
-        EMISSION_MAP.put(AppConstants.PLUGIN_HYBRID_CAR_LARGE, 126);
-        EMISSION_MAP.put(AppConstants.ELECTRIC_CAR_LARGE, 73);
-        EMISSION_MAP.put(AppConstants.BUS_DEFAULT, 27);
-        EMISSION_MAP.put(AppConstants.TRAIN_DEFAULT, 6);
+
+    private static volatile EmissionTable table = EmissionTable.builtIn();
+
+    public static EmissionTable table() {
+        return table;
+    }
+
+    public static void install(EmissionTable emissionTable) {
+        table = emissionTable;
     }
 
     public static Integer getEmissionRate(String method) {
-        return EMISSION_MAP.get(method);
+        EmissionTable current = table;
+        int ordinal = current.ordinal(method);
+        return ordinal < 0 ? null : current.rate(ordinal);
     }
 
     public static boolean isValidMethod(String method) {
-        return EMISSION_MAP.containsKey(method);
+        return table.ordinal(method) >= 0;
     }
 
+    /**
+     * Method names in ordinal order, unmodifiable.
+     */
     public static Set<String> getAllMethods() {
-        return EMISSION_MAP.keySet();
+        return table.methods();
+    }
+
+    /**
+     * Returns the ordinal of the method, or -1 if it is unknown.
+     */
+    public static int ordinal(String method) {
+        return table.ordinal(method);
+    }
+
+    /**
+     * Returns the method name for an ordinal, or {@code null} if it is out of range.
+     */
+    public static String method(int ordinal) {
+        return table.method(ordinal);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.sap.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Co2CalculateResponseDTO {
+
+    private String start;
+    private String end;
+    private String transportationMethod;
+    private double distanceKm;
+    private double co2Kg;
+
+}
@@ -0,0 +1,29 @@
+package com.sap.model.dto;
+
+import com.sap.validation.ValidTransportationMethod;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItineraryRequestDTO {
+
+    @NotNull(message = "Stops cannot be empty")
+    @Size(min = 2, message = "An itinerary needs at least two stops")
+    private List<@NotBlank(message = "Stop city cannot be blank") String> stops;
+
+    /**
+     * One method for every leg, or one per leg in order.
+     */
+    @NotEmpty(message = "Transportation method cannot be blank")
+    private List<@ValidTransportationMethod String> transportationMethods;
+
+}
@@ -0,0 +1,20 @@
+package com.sap.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItineraryResponseDTO {
+
+    private List<Co2CalculateResponseDTO> legs;
+    private double distanceKm;
+    private double co2Kg;
+
+}
@@ -1,14 +1,24 @@
 package com.sap.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.sap.utility.AppConstants;
 
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MatrixRequest {
     public List<double[]> locations;
     public List<String> metrics = List.of(AppConstants.DISTANCE);
+    public List<Integer> sources;
+    public List<Integer> destinations;
 
     public MatrixRequest(List<double[]> locations) {
         this.locations = locations;
     }
+
+    public MatrixRequest(List<double[]> locations, List<Integer> sources, List<Integer> destinations) {
+        this.locations = locations;
+        this.sources = sources;
+        this.destinations = destinations;
+    }
 }
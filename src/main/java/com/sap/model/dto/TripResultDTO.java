@@ -0,0 +1,22 @@
+package com.sap.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TripResultDTO {
+
+    private long line;
+    private String start;
+    private String end;
+    private String transportationMethod;
+    private Double distanceKm;
+    private Double co2Kg;
+    private String error;
+
+}
@@ -0,0 +1,22 @@
+package com.sap.service;
+
+import com.sap.model.dto.Co2CalculateResponseDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link Co2CalculatorService} for callers that keep many trips in flight
+ * at once. No thread waits while a provider call is outstanding; the futures fail with the same
+ * {@link com.sap.exception.ApiException} types as the blocking service, and with a
+ * {@link com.sap.exception.NetworkException} once {@code ORS_ASYNC_TRIP_TIMEOUT_MS} has passed.
+ * Cancelling a returned future cancels the provider calls it started, unless another caller is
+ * still waiting for the same lookup.
+ */
+public interface AsyncCo2CalculatorService {
+
+    CompletableFuture<double[]> getCoordinatesAsync(String city);
+
+    CompletableFuture<Double> getDistanceKmAsync(String start, String end);
+
+    CompletableFuture<Co2CalculateResponseDTO> calculateAsync(String start, String end, String transportMethod);
+}
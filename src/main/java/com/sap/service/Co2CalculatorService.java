@@ -1,7 +1,40 @@
 package com.sap.service;
 
+import com.sap.model.DistanceMatrix;
+import com.sap.model.dto.ItineraryResponseDTO;
+
+import java.util.List;
+
 public interface Co2CalculatorService {
     double getDistanceKm(String start, String end) throws Exception;
 
     double calculateCo2Kg(double distanceKm, String transportMethod);
+
+    /**
+     * Bulk variant of {@link #calculateCo2Kg(double, String)}: {@code out[i]} receives the CO2 for
+     * {@code distancesKm[i]} with the method whose {@link com.sap.model.TransportMethod#ordinal} is
+     * {@code methodOrdinals[i]}, bit-identical to the scalar result.
+     */
+    void calculateCo2Kg(double[] distancesKm, int[] methodOrdinals, double[] out);
+
+    double[] getCoordinates(String city);
+
+    double[][] getDistanceMatrixKm(List<double[]> sources, List<double[]> destinations);
+
+    /**
+     * Like {@link #getDistanceMatrixKm(List, List)}, but only cells with {@code needed[i][j]} are
+     * guaranteed to be filled; the others may be {@code NaN}. Only the sources and destinations of
+     * needed pairs are sent to the provider, so a sparse set of pairs costs few matrix requests.
+     */
+    double[][] getDistanceMatrixKm(List<double[]> sources, List<double[]> destinations, boolean[][] needed);
+
+    DistanceMatrix getDistanceMatrix(List<String> origins, List<String> destinations);
+
+    DistanceMatrix getCo2Matrix(List<String> origins, List<String> destinations, String transportMethod);
+
+    /**
+     * Distance and CO2 of every leg of {@code stops[0] -> stops[1] -> ...}, and their totals.
+     * {@code transportMethods} holds one method for all legs or one per leg.
+     */
+    ItineraryResponseDTO calculateItinerary(List<String> stops, List<String> transportMethods);
 }
@@ -0,0 +1,182 @@
+package com.sap.service;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approximates road distances as the great-circle (haversine) distance times a detour factor.
+ * <p>
+ * The factor starts at {@code defaultFactor} everywhere and is calibrated per region, a grid cell
+ * of {@code regionDegrees} around the midpoint of the trip, from road distances the provider has
+ * returned: once a region has {@code minSamples} observations its factor is the ratio of the
+ * summed road distances to the summed great-circle distances. Factors are published as an
+ * immutable snapshot, so estimates never lock and millions of pairs per second can be screened
+ * with {@link #estimateKm(double[], double[], double[], double[], double[])}.
+ * <p>
+ * With {@code estimateOnly} the service answers uncached trips from the estimate alone; with
+ * {@code fallback} it uses the estimate when the matrix call fails. Both are off by default because
+ * callers cannot tell an estimated distance from a measured one.
+ */
+@Component
+public class DistanceEstimator {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double MIN_CALIBRATION_KM = 1.0;
+    private static final double MIN_FACTOR = 1.0;
+    private static final double MAX_FACTOR = 5.0;
+
+    @Getter
+    private final boolean estimateOnly;
+    @Getter
+    private final boolean fallback;
+    private final double regionDegrees;
+    private final int minSamples;
+    private final int columns;
+    private final int rows;
+    private final double[] roadKm;
+    private final double[] greatCircleKm;
+    private final int[] samples;
+    private volatile double[] factors;
+
+    @Autowired
+    public DistanceEstimator(@Value("${DISTANCE_ESTIMATE_ONLY:false}") boolean estimateOnly,
+                             @Value("${DISTANCE_ESTIMATE_FALLBACK:false}") boolean fallback,
+                             @Value("${DISTANCE_ESTIMATE_DEFAULT_FACTOR:1.3}") double defaultFactor,
+                             @Value("${DISTANCE_ESTIMATE_REGION_DEGREES:10}") double regionDegrees,
+                             @Value("${DISTANCE_ESTIMATE_MIN_SAMPLES:5}") int minSamples) {
+        this.estimateOnly = estimateOnly;
+        this.fallback = fallback;
+        this.regionDegrees = regionDegrees;
+        this.minSamples = Math.max(1, minSamples);
+        this.columns = (int) Math.ceil(360 / regionDegrees);
+        this.rows = (int) Math.ceil(180 / regionDegrees);
+        int regions = columns * rows;
+        this.roadKm = new double[regions];
+        this.greatCircleKm = new double[regions];
+        this.samples = new int[regions];
+        this.factors = new double[regions];
+        Arrays.fill(factors, defaultFactor);
+    }
+
+    /**
+     * Neither fast path nor fallback; estimates use the default factor until calibrated.
+     */
+    public static DistanceEstimator disabled() {
+        return new DistanceEstimator(false, false, 1.3, 10, 5);
+    }
+
+    /**
+     * Great-circle distance in kilometres between two {@code [longitude, latitude]} points.
+     */
+    public static double haversineKm(double startLon, double startLat, double endLon, double endLat) {
+        double dLat = Math.toRadians(endLat - startLat);
+        double dLon = Math.toRadians(endLon - startLon);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(startLat)) * Math.cos(Math.toRadians(endLat)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public double estimateKm(double[] start, double[] end) {
+        return haversineKm(start[0], start[1], end[0], end[1]) * factors[region(start, end)];
+    }
+
+    /**
+     * Estimates {@code out[i]} for the pair {@code (startLon[i], startLat[i]) -> (endLon[i], endLat[i])}.
+     */
+    public void estimateKm(double[] startLon, double[] startLat, double[] endLon, double[] endLat, double[] out) {
+        double[] snapshot = factors;
+        for (int i = 0; i < out.length; i++) {
+            double distance = haversineKm(startLon[i], startLat[i], endLon[i], endLat[i]);
+            out[i] = distance * snapshot[region(startLon[i], startLat[i], endLon[i], endLat[i])];
+        }
+    }
+
+    /**
+     * Estimates every source to every destination, shaped like a matrix response.
+     */
+    public double[][] estimateMatrixKm(List<double[]> sources, List<double[]> destinations) {
+        double[][] result = new double[sources.size()][destinations.size()];
+        for (int i = 0; i < result.length; i++) {
+            for (int j = 0; j < result[i].length; j++) {
+                result[i][j] = estimateKm(sources.get(i), destinations.get(j));
+            }
+        }
+        return result;
+    }
+
+    public double factor(double[] start, double[] end) {
+        return factors[region(start, end)];
+    }
+
+    /**
+     * Records a road distance returned by the provider for calibration.
+     */
+    public void observe(double[] start, double[] end, double roadDistanceKm) {
+        synchronized (this) {
+            if (record(start, end, roadDistanceKm)) {
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Records a whole matrix of road distances for calibration, publishing the factors once.
+     */
+    public void observeAll(List<double[]> sources, List<double[]> destinations, double[][] roadDistancesKm) {
+        synchronized (this) {
+            boolean changed = false;
+            for (int i = 0; i < sources.size(); i++) {
+                for (int j = 0; j < destinations.size(); j++) {
+                    changed |= record(sources.get(i), destinations.get(j), roadDistancesKm[i][j]);
+                }
+            }
+            if (changed) {
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Skips pairs too close to give a meaningful ratio and implausible detours (ferries, no route).
+     */
+    private boolean record(double[] start, double[] end, double roadDistanceKm) {
+        double distance = haversineKm(start[0], start[1], end[0], end[1]);
+        if (distance < MIN_CALIBRATION_KM) {
+            return false;
+        }
+        double ratio = roadDistanceKm / distance;
+        if (ratio < MIN_FACTOR || ratio > MAX_FACTOR) {
+            return false;
+        }
+        int region = region(start, end);
+        roadKm[region] += roadDistanceKm;
+        greatCircleKm[region] += distance;
+        samples[region]++;
+        return samples[region] >= minSamples;
+    }
+
+    private void publish() {
+        double[] next = factors.clone();
+        for (int region = 0; region < next.length; region++) {
+            if (samples[region] >= minSamples) {
+                next[region] = roadKm[region] / greatCircleKm[region];
+            }
+        }
+        factors = next;
+    }
+
+    private int region(double[] start, double[] end) {
+        return region(start[0], start[1], end[0], end[1]);
+    }
+
+    private int region(double startLon, double startLat, double endLon, double endLat) {
+        int column = (int) ((((startLon + endLon) / 2) + 180) / regionDegrees);
+        int row = (int) ((((startLat + endLat) / 2) + 90) / regionDegrees);
+        return Math.min(Math.max(row, 0), rows - 1) * columns + Math.min(Math.max(column, 0), columns - 1);
+    }
+}
@@ -0,0 +1,579 @@
+package com.sap.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.AsyncSingleFlight;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.client.OrsEndpoint;
+import com.sap.client.OrsResilience;
+import com.sap.client.OrsResponseParser;
+import com.sap.client.OrsThrottle;
+import com.sap.exception.ApiException;
+import com.sap.exception.BadRequestException;
+import com.sap.exception.CircuitOpenException;
+import com.sap.exception.CityNotFoundException;
+import com.sap.exception.ForbiddenException;
+import com.sap.exception.InternalServerErrorException;
+import com.sap.exception.NetworkException;
+import com.sap.exception.TooManyRequestsException;
+import com.sap.exception.UnknownTransportMethodException;
+import com.sap.metrics.Co2Metrics;
+import com.sap.model.EmissionTable;
+import com.sap.model.TransportMethod;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.model.dto.MatrixRequest;
+import com.sap.service.AsyncCo2CalculatorService;
+import com.sap.service.DistanceEstimator;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link AsyncCo2CalculatorService} on the JDK's non-blocking {@link HttpClient}. The two geocode
+ * lookups of a trip run concurrently and the matrix call starts when both have resolved; each
+ * stage is a continuation on the client's completion threads, so an outstanding trip costs a few
+ * objects rather than a parked thread. Rate limiting, retries and the circuit breakers are the
+ * asynchronous paths of {@link OrsThrottle} and {@link OrsResilience}, and the caches, store,
+ * gazetteer and distance estimator are shared with the blocking service. The store and the
+ * gazetteer read and write files, so they are consulted on the blocking geocode executor rather
+ * than on the completion threads.
+ * <p>
+ * Every trip has a deadline of {@code ORS_ASYNC_TRIP_TIMEOUT_MS}. When it passes, or the caller
+ * cancels, or one stage fails, the lookups the trip started are cancelled unless another trip
+ * still waits for them.
+ */
+@Slf4j
+@Getter
+@Service
+public class AsyncCo2CalculatorServiceImpl implements AsyncCo2CalculatorService {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper mapper;
+    private final String ORS_TOKEN;
+    private final String GEO_CODE_API;
+    private final String MATRIX_API;
+    private final MessageSource messageSource;
+    private final GeocodeCache geocodeCache;
+    private final GeocodeStore geocodeStore;
+    private final DistanceCache distanceCache;
+    private final long READ_TIMEOUT_MS;
+    private final long TRIP_TIMEOUT_MS;
+    private final Co2Metrics metrics;
+    private final OrsThrottle throttle;
+    private final OrsResilience resilience;
+    private final Gazetteer gazetteer;
+    private final DistanceEstimator estimator;
+    private final ExecutorService storeExecutor;
+    private final AsyncSingleFlight<String, double[]> geocodeFlight;
+    private final AsyncSingleFlight<DistanceCache.PairKey, Double> distanceFlight;
+
+    public AsyncCo2CalculatorServiceImpl(@Qualifier("orsAsyncHttpClient") HttpClient httpClient,
+                                         ObjectMapper mapper,
+                                         @Value("${ORS_TOKEN}") String ORS_TOKEN,
+                                         @Value("${OPEN_ROUTE_API_GEOCODE}") String GEO_CODE_API,
+                                         @Value("${OPEN_ROUTE_API_MATRIX}") String MATRIX_API,
+                                         MessageSource messageSource,
+                                         GeocodeCache geocodeCache,
+                                         GeocodeStore geocodeStore,
+                                         DistanceCache distanceCache,
+                                         @Value("${HTTP_READ_TIMEOUT_MS:15000}") long READ_TIMEOUT_MS,
+                                         @Value("${ORS_ASYNC_TRIP_TIMEOUT_MS:20000}") long TRIP_TIMEOUT_MS,
+                                         Co2Metrics metrics,
+                                         OrsThrottle throttle,
+                                         OrsResilience resilience,
+                                         Gazetteer gazetteer,
+                                         DistanceEstimator estimator,
+                                         @Qualifier("geocodeExecutor") ExecutorService storeExecutor) {
+        this.httpClient = httpClient;
+        this.mapper = mapper;
+        this.ORS_TOKEN = ORS_TOKEN;
+        this.GEO_CODE_API = GEO_CODE_API;
+        this.MATRIX_API = MATRIX_API;
+        this.messageSource = messageSource;
+        this.geocodeCache = geocodeCache;
+        this.geocodeStore = geocodeStore;
+        this.distanceCache = distanceCache;
+        this.READ_TIMEOUT_MS = READ_TIMEOUT_MS;
+        this.TRIP_TIMEOUT_MS = TRIP_TIMEOUT_MS;
+        this.metrics = metrics;
+        this.throttle = throttle;
+        this.resilience = resilience;
+        this.gazetteer = gazetteer;
+        this.estimator = estimator;
+        this.storeExecutor = storeExecutor;
+        this.geocodeFlight = new AsyncSingleFlight<>(() -> metrics.count("co2.coalesced", Co2Metrics.GEOCODE));
+        this.distanceFlight = new AsyncSingleFlight<>(() -> metrics.count("co2.coalesced", Co2Metrics.MATRIX));
+    }
+
+    @Override
+    public CompletableFuture<double[]> getCoordinatesAsync(String city) {
+        TripScope scope = new TripScope();
+        return withDeadline(scope, coordinates(city, scope), () -> buildErrorMessage("geo.timeout", city, TRIP_TIMEOUT_MS));
+    }
+
+    @Override
+    public CompletableFuture<Double> getDistanceKmAsync(String start, String end) {
+        return metrics.recordAsync(Co2Metrics.TRIP, () -> {
+            TripScope scope = new TripScope();
+            return withDeadline(scope, distanceKm(start, end, scope), () -> buildErrorMessage("trip.timeout", start, end, TRIP_TIMEOUT_MS));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Co2CalculateResponseDTO> calculateAsync(String start, String end, String transportMethod) {
+        EmissionTable emissions = TransportMethod.table();
+        int ordinal = emissions.ordinal(transportMethod);
+        if (ordinal < 0) {
+            return CompletableFuture.failedFuture(new UnknownTransportMethodException(buildErrorMessage("transport.unknown", transportMethod)));
+        }
+        int rate = emissions.rate(ordinal);
+        CompletableFuture<Double> distance = getDistanceKmAsync(start, end);
+        return propagateCancel(distance, distance.thenApply(distanceKm -> new Co2CalculateResponseDTO(
+                start, end, transportMethod, distanceKm, Co2CalculatorServiceImpl.co2Kg(distanceKm, rate))));
+    }
+
+    private CompletableFuture<Double> distanceKm(String start, String end, TripScope scope) {
+        CompletableFuture<double[]> from = coordinates(start, scope);
+        CompletableFuture<double[]> to = coordinates(end, scope);
+        CompletableFuture<double[][]> both = from.thenCombine(to, (startCoords, endCoords) -> new double[][]{startCoords, endCoords});
+        // thenCombine waits for both sides; fail as soon as either lookup fails instead.
+        from.whenComplete((coords, error) -> failWith(both, error));
+        to.whenComplete((coords, error) -> failWith(both, error));
+        return both.thenCompose(points -> distanceKm(start, end, points[0], points[1], scope));
+    }
+
+    private CompletableFuture<Double> distanceKm(String start, String end, double[] startCoords, double[] endCoords, TripScope scope) {
+        Double cached = distanceCache.get(startCoords, endCoords);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (estimator.isEstimateOnly()) {
+            return CompletableFuture.completedFuture(estimator.estimateKm(startCoords, endCoords));
+        }
+        return scope.track(distanceFlight.execute(distanceCache.key(startCoords, endCoords),
+                () -> loadDistanceKm(start, end, startCoords, endCoords)));
+    }
+
+    private CompletableFuture<Double> loadDistanceKm(String start, String end, double[] startCoords, double[] endCoords) {
+        CompletableFuture<Double> call = callProvider(OrsEndpoint.MATRIX, () -> fetchDistanceKm(start, end, startCoords, endCoords));
+        return propagateCancel(call, call.handle((distanceKm, error) -> {
+            if (error == null) {
+                distanceCache.put(startCoords, endCoords, distanceKm);
+                estimator.observe(startCoords, endCoords, distanceKm);
+                return distanceKm;
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof CircuitOpenException e) {
+                Double stale = resilience.isServeStale() ? distanceCache.getStale(startCoords, endCoords) : null;
+                return stale != null ? stale : estimateOrThrow(startCoords, endCoords, e);
+            }
+            if (cause instanceof NetworkException || cause instanceof InternalServerErrorException || cause instanceof TooManyRequestsException) {
+                return estimateOrThrow(startCoords, endCoords, (ApiException) cause);
+            }
+            throw rethrow(cause);
+        }));
+    }
+
+    private double estimateOrThrow(double[] startCoords, double[] endCoords, ApiException failure) {
+        if (!estimator.isFallback()) {
+            throw failure;
+        }
+        metrics.count("co2.distance.estimated", Co2Metrics.MATRIX);
+        return estimator.estimateKm(startCoords, endCoords);
+    }
+
+    private CompletableFuture<double[]> coordinates(String city, TripScope scope) {
+        try {
+            if (StringUtils.isBlank(city)) {
+                throw new BadRequestException(buildErrorMessage("city.blank"));
+            }
+            double[] cached = geocodeCache.get(city);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // Concurrent misses for the same city share one lookup; each caller gets its own copy.
+        return scope.track(geocodeFlight.execute(GeocodeCache.normalize(city), () -> loadCoordinates(city)))
+                .thenApply(double[]::clone);
+    }
+
+    private CompletableFuture<double[]> loadCoordinates(String city) {
+        CompletableFuture<double[]> local = CompletableFuture.supplyAsync(() -> localCoordinates(city), storeExecutor);
+        CompletableFuture<double[]> result = new CompletableFuture<>();
+        local.whenComplete((coords, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+            } else if (coords != null) {
+                result.complete(coords);
+            } else {
+                // Cancelling the trip's lookup also cancels the provider call it has started.
+                CompletableFuture<double[]> remote = remoteCoordinates(city);
+                propagateCancel(remote, result);
+                remote.whenComplete((remoteCoords, remoteError) -> {
+                    if (remoteError != null) {
+                        result.completeExceptionally(unwrap(remoteError));
+                    } else {
+                        result.complete(remoteCoords);
+                    }
+                });
+            }
+        });
+        return propagateCancel(local, result);
+    }
+
+    /**
+     * Coordinates from the store or the gazetteer, or {@code null}; both may touch the disk.
+     */
+    private double[] localCoordinates(String city) {
+        double[] stored = geocodeStore.get(city);
+        if (stored != null) {
+            geocodeCache.put(city, stored);
+            return stored;
+        }
+
+        return gazetteerCoordinates(city);
+    }
+
+    /**
+     * Gazetteer coordinates, or {@code null}; as in the blocking service only exact matches are cached.
+     */
+    private double[] gazetteerCoordinates(String city) {
+        Gazetteer.Match match = gazetteer.find(city);
+        if (match == null) {
+            return null;
+        }
+        metrics.count("co2.gazetteer.hits", Co2Metrics.GEOCODE);
+        if (match.type() == Gazetteer.MatchType.EXACT) {
+            geocodeCache.put(city, match.coordinates());
+        } else {
+            log.debug("Resolved {} to gazetteer {} match {}", city, match.type(), match.name());
+        }
+        return match.coordinates();
+    }
+
+    private CompletableFuture<double[]> remoteCoordinates(String city) {
+        CompletableFuture<double[]> call = callProvider(OrsEndpoint.GEOCODE, () -> fetchCoordinates(city));
+        return propagateCancel(call, call.handle((coords, error) -> {
+            if (error == null) {
+                geocodeCache.put(city, coords);
+                CompletableFuture.runAsync(() -> geocodeStore.put(city, coords), storeExecutor);
+                return coords;
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof CityNotFoundException e) {
+                geocodeCache.putNotFound(city, e.getMessage());
+            } else if (cause instanceof CircuitOpenException && resilience.isServeStale()) {
+                double[] stale = geocodeCache.getStale(city);
+                if (stale != null) {
+                    return stale;
+                }
+            }
+            throw rethrow(cause);
+        }));
+    }
+
+    /**
+     * Every provider call goes through the retry and circuit-breaker layer, and each attempt
+     * through the rate limiter, as on the blocking path.
+     */
+    private <T> CompletableFuture<T> callProvider(OrsEndpoint endpoint, Supplier<CompletableFuture<T>> request) {
+        return metrics.recordAsync(endpoint.stage(), () -> resilience.callAsync(endpoint, () -> throttle.callAsync(endpoint, request)));
+    }
+
+    private CompletableFuture<double[]> fetchCoordinates(String city) {
+        URI uri = URI.create(GEO_CODE_API + "?api_key=" + encode(ORS_TOKEN) + "&text=" + encode(city) + "&layers=locality");
+        HttpRequest request = newRequest(uri).GET().build();
+        CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        return propagateCancel(exchange, exchange.handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                throw new NetworkException(buildErrorMessage("geo.network", city, cause.getMessage()), cause);
+            }
+            if (response.statusCode() >= 400) {
+                throw geoFailure(city, response);
+            }
+
+            double[] coords;
+            try (JsonParser parser = mapper.getFactory().createParser(body(response))) {
+                long start = System.nanoTime();
+                if (parser.nextToken() == null) {
+                    throw new InternalServerErrorException(buildErrorMessage("geo.empty.body", city));
+                }
+                coords = OrsResponseParser.readFirstFeatureCoordinates(parser);
+                metrics.recordTime(Co2Metrics.PARSE, System.nanoTime() - start);
+            } catch (JsonProcessingException e) {
+                throw new InternalServerErrorException(buildErrorMessage("geo.server.generic", city, e.getOriginalMessage()));
+            } catch (IOException e) {
+                throw new InternalServerErrorException(buildErrorMessage("geo.server.generic", city, e.getMessage()));
+            }
+
+            if (coords == null) {
+                throw new CityNotFoundException(buildErrorMessage("geo.notfound", city));
+            }
+            if (coords.length < 2) {
+                throw new InternalServerErrorException(buildErrorMessage("geo.invalid.coords", city));
+            }
+            return coords;
+        }));
+    }
+
+    private CompletableFuture<Double> fetchDistanceKm(String start, String end, double[] startCoords, double[] endCoords) {
+        byte[] payload;
+        try {
+            payload = mapper.writeValueAsBytes(new MatrixRequest(List.of(startCoords, endCoords)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new InternalServerErrorException(buildErrorMessage("matrix.server.generic", start, end, e.getOriginalMessage())));
+        }
+        HttpRequest request = newRequest(URI.create(MATRIX_API))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, ORS_TOKEN)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+        CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        return propagateCancel(exchange, exchange.handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                throw new NetworkException(buildErrorMessage("matrix.network", start, end, cause.getMessage()), cause);
+            }
+            if (response.statusCode() >= 400) {
+                throw matrixFailure(start, end, response);
+            }
+
+            double[][] distances;
+            try (JsonParser parser = mapper.getFactory().createParser(body(response))) {
+                long parseStart = System.nanoTime();
+                if (parser.nextToken() == null) {
+                    throw new InternalServerErrorException(buildErrorMessage("matrix.empty.body", start, end));
+                }
+                distances = OrsResponseParser.readDistances(parser, 1, 2);
+                metrics.recordTime(Co2Metrics.PARSE, System.nanoTime() - parseStart);
+            } catch (JsonProcessingException e) {
+                throw new InternalServerErrorException(buildErrorMessage("matrix.server.generic", start, end, e.getOriginalMessage()));
+            } catch (IOException e) {
+                throw new InternalServerErrorException(buildErrorMessage("matrix.server.generic", start, end, e.getMessage()));
+            }
+
+            if (distances == null) {
+                throw new InternalServerErrorException(buildErrorMessage("matrix.empty.data", start, end));
+            }
+            return distances[0][1] / 1000.0;
+        }));
+    }
+
+    private HttpRequest.Builder newRequest(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(READ_TIMEOUT_MS))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    }
+
+    /**
+     * The JDK client does not decode compressed bodies itself.
+     */
+    private static InputStream body(HttpResponse<byte[]> response) throws IOException {
+        InputStream body = new ByteArrayInputStream(response.body());
+        boolean gzip = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(body) : body;
+    }
+
+    private static String bodyText(HttpResponse<byte[]> response) {
+        try (InputStream body = body(response)) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private ApiException geoFailure(String city, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        String body = bodyText(response);
+        if (status == HttpStatus.FORBIDDEN.value()) {
+            return new ForbiddenException(buildErrorMessage("geo.forbidden", city, body));
+        } else if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return new TooManyRequestsException(buildErrorMessage("geo.rate.limited", city, body), retryAfterMillis(response));
+        } else if (status < 500) {
+            return new BadRequestException(buildErrorMessage("geo.client", city, status, body));
+        } else {
+            return new InternalServerErrorException(buildErrorMessage("geo.server", city, status, body));
+        }
+    }
+
+    private ApiException matrixFailure(String start, String end, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        String body = bodyText(response);
+        if (status == HttpStatus.FORBIDDEN.value()) {
+            return new ForbiddenException(buildErrorMessage("matrix.forbidden", start, end, body));
+        } else if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return new TooManyRequestsException(buildErrorMessage("matrix.rate.limited", start, end, body), retryAfterMillis(response));
+        } else if (status < 500) {
+            return new BadRequestException(buildErrorMessage("matrix.client", start, end, status, body));
+        } else {
+            return new InternalServerErrorException(buildErrorMessage("matrix.server", start, end, status, body));
+        }
+    }
+
+    private static long retryAfterMillis(HttpResponse<byte[]> response) {
+        return Co2CalculatorServiceImpl.retryAfterMillis(response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Completes with the result of {@code work}, or with a {@link NetworkException} once the trip
+     * deadline passes. Whatever the trip still has in flight is cancelled before the returned
+     * future fails, and when the caller cancels it.
+     */
+    private <T> CompletableFuture<T> withDeadline(TripScope scope, CompletableFuture<T> work, Supplier<String> timeoutMessage) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> deadline = new CompletableFuture<Void>().orTimeout(TRIP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        deadline.whenComplete((ignored, timeout) -> {
+            if (timeout != null) {
+                fail(result, scope, new NetworkException(timeoutMessage.get(), timeout));
+            }
+        });
+        work.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                fail(result, scope, rethrow(unwrap(error)));
+            }
+        });
+        result.whenComplete((value, error) -> {
+            deadline.complete(null);
+            if (error != null) {
+                scope.cancel();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The first failure wins; the cancellations it causes further down do not replace it.
+     */
+    private static void fail(CompletableFuture<?> result, TripScope scope, RuntimeException error) {
+        if (scope.fail()) {
+            scope.cancel();
+            result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * {@link CompletableFuture} does not pass cancellation upstream; this makes cancelling
+     * {@code derived} cancel {@code source} too.
+     */
+    private static <T> CompletableFuture<T> propagateCancel(CompletableFuture<?> source, CompletableFuture<T> derived) {
+        derived.whenComplete((value, error) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    private static void failWith(CompletableFuture<?> future, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(unwrap(error));
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new InternalServerErrorException(String.valueOf(cause));
+    }
+
+    private String buildErrorMessage(String key, Object... args) {
+        Locale locale = LocaleContextHolder.getLocale();
+        String defaultMsg = "An error occurred [" + key + "]";
+        return messageSource.getMessage("error." + key, args, defaultMsg, locale);
+    }
+
+    /**
+     * The lookups one trip has started, cancelled together when the trip ends without a result.
+     */
+    private static final class TripScope {
+
+        private final List<CompletableFuture<?>> started = new ArrayList<>();
+        private boolean cancelled;
+        private boolean failed;
+
+        synchronized boolean fail() {
+            if (cancelled || failed) {
+                return false;
+            }
+            failed = true;
+            return true;
+        }
+
+        <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+            boolean cancelNow;
+            synchronized (this) {
+                cancelNow = cancelled;
+                if (!cancelNow) {
+                    started.add(future);
+                }
+            }
+            if (cancelNow) {
+                future.cancel(true);
+            }
+            return future;
+        }
+
+        void cancel() {
+            List<CompletableFuture<?>> inFlight;
+            synchronized (this) {
+                cancelled = true;
+                inFlight = List.copyOf(started);
+                started.clear();
+            }
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+}
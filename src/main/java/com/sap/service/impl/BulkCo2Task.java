@@ -0,0 +1,44 @@
+package com.sap.service.impl;
+
+import com.sap.model.EmissionTable;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join kernel behind the bulk {@code calculateCo2Kg}: halves the range until it is below
+ * {@link #PARALLEL_THRESHOLD} and runs a plain loop over primitive arrays on each piece. All pieces
+ * read the same {@link EmissionTable} snapshot, and the caller has checked every ordinal against it.
+ */
+final class BulkCo2Task extends RecursiveAction {
+
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final double[] distancesKm;
+    private final int[] methodOrdinals;
+    private final EmissionTable emissions;
+    private final double[] out;
+    private final int from;
+    private final int to;
+
+    BulkCo2Task(double[] distancesKm, int[] methodOrdinals, EmissionTable emissions, double[] out, int from, int to) {
+        this.distancesKm = distancesKm;
+        this.methodOrdinals = methodOrdinals;
+        this.emissions = emissions;
+        this.out = out;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= PARALLEL_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                out[i] = Co2CalculatorServiceImpl.co2Kg(distancesKm[i], emissions.rate(methodOrdinals[i]));
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new BulkCo2Task(distancesKm, methodOrdinals, emissions, out, from, middle),
+                new BulkCo2Task(distancesKm, methodOrdinals, emissions, out, middle, to));
+    }
+}
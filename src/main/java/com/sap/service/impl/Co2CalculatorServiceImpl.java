@@ -1,36 +1,78 @@
 package com.sap.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.cache.SingleFlight;
+import com.sap.client.OrsEndpoint;
+import com.sap.client.OrsResilience;
+import com.sap.client.OrsResponseParser;
+import com.sap.client.OrsThrottle;
+import com.sap.exception.ApiException;
 import com.sap.exception.BadRequestException;
+import com.sap.exception.CircuitOpenException;
 import com.sap.exception.CityNotFoundException;
 import com.sap.exception.ForbiddenException;
 import com.sap.exception.InternalServerErrorException;
 import com.sap.exception.NetworkException;
+import com.sap.exception.TooManyRequestsException;
 import com.sap.exception.UnknownTransportMethodException;
+import com.sap.metrics.Co2Metrics;
+import com.sap.model.DistanceMatrix;
+import com.sap.model.EmissionTable;
 import com.sap.model.TransportMethod;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.model.dto.ItineraryResponseDTO;
 import com.sap.model.dto.MatrixRequest;
 import com.sap.service.Co2CalculatorService;
-import com.sap.utility.AppConstants;
+import com.sap.service.DistanceEstimator;
+import com.sap.utility.NamedThreadFactory;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+@Slf4j
 @Getter
 @Service
 public class Co2CalculatorServiceImpl implements Co2CalculatorService {
@@ -41,98 +83,704 @@ public class Co2CalculatorServiceImpl implements Co2CalculatorService {
     private final String GEO_CODE_API;
     private final String MATRIX_API;
     private final MessageSource messageSource;
+    private final GeocodeCache geocodeCache;
+    private final GeocodeStore geocodeStore;
+    private final DistanceCache distanceCache;
+    private final int MATRIX_MAX_LOCATIONS;
+    private final int MATRIX_MAX_ROUTES;
+    private final ExecutorService geocodeExecutor;
+    private final long GEOCODE_DEADLINE_MS;
+    private final Co2Metrics metrics;
+    private final OrsThrottle throttle;
+    private final OrsResilience resilience;
+    private final Gazetteer gazetteer;
+    private final DistanceEstimator estimator;
+    private final SingleFlight<String, double[]> geocodeFlight;
+    private final SingleFlight<DistanceCache.PairKey, Double> distanceFlight;
 
+    /**
+     * Standalone wiring with default limits. Instances built this way share one daemon geocode
+     * pool, so creating many of them does not leak threads.
+     */
+    public Co2CalculatorServiceImpl(RestTemplate restTemplate,
+                                    ObjectMapper mapper,
+                                    String ORS_TOKEN,
+                                    String GEO_CODE_API,
+                                    String MATRIX_API,
+                                    MessageSource messageSource) {
+        this(restTemplate, mapper, ORS_TOKEN, GEO_CODE_API, MATRIX_API, messageSource,
+                new GeocodeCache(10000, 1440, 60), GeocodeStore.disabled(), new DistanceCache(50000, 1440, true),
+                50, 3500, SharedGeocodeExecutor.INSTANCE, 15000, Co2Metrics.standalone(), OrsThrottle.unlimited(),
+                OrsResilience.disabled(), Gazetteer.disabled(),
+                DistanceEstimator.disabled());
+    }
+
+    @Autowired
     public Co2CalculatorServiceImpl(RestTemplate restTemplate,
                                     ObjectMapper mapper,
                                     @Value("${ORS_TOKEN}") String ORS_TOKEN,
                                     @Value("${OPEN_ROUTE_API_GEOCODE}") String GEO_CODE_API,
                                     @Value("${OPEN_ROUTE_API_MATRIX}") String MATRIX_API,
-                                    MessageSource messageSource) {
+                                    MessageSource messageSource,
+                                    GeocodeCache geocodeCache,
+                                    GeocodeStore geocodeStore,
+                                    DistanceCache distanceCache,
+                                    @Value("${ORS_MATRIX_MAX_LOCATIONS:50}") int MATRIX_MAX_LOCATIONS,
+                                    @Value("${ORS_MATRIX_MAX_ROUTES:3500}") int MATRIX_MAX_ROUTES,
+                                    @Qualifier("geocodeExecutor") ExecutorService geocodeExecutor,
+                                    @Value("${GEOCODE_DEADLINE_MS:15000}") long GEOCODE_DEADLINE_MS,
+                                    Co2Metrics metrics,
+                                    OrsThrottle throttle,
+                                    OrsResilience resilience,
+                                    Gazetteer gazetteer,
+                                    DistanceEstimator estimator) {
         this.restTemplate = restTemplate;
         this.mapper = mapper;
         this.ORS_TOKEN = ORS_TOKEN;
         this.GEO_CODE_API = GEO_CODE_API;
         this.MATRIX_API = MATRIX_API;
         this.messageSource = messageSource;
+        this.geocodeCache = geocodeCache;
+        this.geocodeStore = geocodeStore;
+        this.distanceCache = distanceCache;
+        this.MATRIX_MAX_LOCATIONS = MATRIX_MAX_LOCATIONS;
+        this.MATRIX_MAX_ROUTES = MATRIX_MAX_ROUTES;
+        this.geocodeExecutor = geocodeExecutor;
+        this.GEOCODE_DEADLINE_MS = GEOCODE_DEADLINE_MS;
+        this.metrics = metrics;
+        this.throttle = throttle;
+        this.resilience = resilience;
+        this.gazetteer = gazetteer;
+        this.estimator = estimator;
+        this.geocodeFlight = new SingleFlight<>(() -> metrics.count("co2.coalesced", Co2Metrics.GEOCODE));
+        this.distanceFlight = new SingleFlight<>(() -> metrics.count("co2.coalesced", Co2Metrics.MATRIX));
+        metrics.monitorCache(Co2Metrics.GEOCODE, geocodeCache::stats);
+        metrics.monitorCache("distance", distanceCache::stats);
     }
 
     @Override
     public double getDistanceKm(String cityStart, String cityEnd) {
-        double[] startCoords = getCoordinates(cityStart);
-        double[] endCoords = getCoordinates(cityEnd);
+        return metrics.record(Co2Metrics.TRIP, () -> resolveDistanceKm(cityStart, cityEnd));
+    }
+
+    private double resolveDistanceKm(String cityStart, String cityEnd) {
+        Map<String, double[]> coordinates = resolveCoordinates(List.of(cityStart, cityEnd));
+        double[] startCoords = coordinates.get(GeocodeCache.normalize(cityStart));
+        double[] endCoords = coordinates.get(GeocodeCache.normalize(cityEnd));
+
+        Double cached = distanceCache.get(startCoords, endCoords);
+        if (cached != null) {
+            return cached;
+        }
+        if (estimator.isEstimateOnly()) {
+            return estimator.estimateKm(startCoords, endCoords);
+        }
+
+        return distanceFlight.execute(distanceCache.key(startCoords, endCoords),
+                () -> loadDistanceKm(cityStart, cityEnd, startCoords, endCoords));
+    }
+
+    private double loadDistanceKm(String cityStart, String cityEnd, double[] startCoords, double[] endCoords) {
+        double distanceKm;
+        try {
+            distanceKm = fetchDistanceKm(cityStart, cityEnd, startCoords, endCoords);
+        } catch (CircuitOpenException e) {
+            Double stale = resilience.isServeStale() ? distanceCache.getStale(startCoords, endCoords) : null;
+            return stale != null ? stale : estimateOrThrow(startCoords, endCoords, e);
+        } catch (NetworkException | InternalServerErrorException | TooManyRequestsException e) {
+            return estimateOrThrow(startCoords, endCoords, e);
+        }
+        distanceCache.put(startCoords, endCoords, distanceKm);
+        estimator.observe(startCoords, endCoords, distanceKm);
+        return distanceKm;
+    }
+
+    /**
+     * Falls back to the great-circle estimate when the matrix call failed for a transient reason.
+     * Estimates are never cached, so the next request tries the provider again.
+     */
+    private double estimateOrThrow(double[] startCoords, double[] endCoords, ApiException failure) {
+        if (!estimator.isFallback()) {
+            throw failure;
+        }
+        metrics.count("co2.distance.estimated", Co2Metrics.MATRIX);
+        return estimator.estimateKm(startCoords, endCoords);
+    }
+
+    private double fetchDistanceKm(String cityStart, String cityEnd, double[] startCoords, double[] endCoords) {
+        double[][] distances = postMatrix(new MatrixRequest(List.of(startCoords, endCoords)), 1, 2, cityStart, cityEnd);
+        return distances[0][1] / 1000.0;
+    }
+
+    /**
+     * Returns the road distance in kilometres from every source to every destination.
+     * Large inputs are split into tiles that respect the provider's per-request location
+     * and route limits, with one matrix request per tile. In {@code DISTANCE_ESTIMATE_ONLY}
+     * mode the values are estimates, and callers must not cache them.
+     */
+    @Override
+    public double[][] getDistanceMatrixKm(List<double[]> sources, List<double[]> destinations) {
+        if (estimator.isEstimateOnly()) {
+            return estimator.estimateMatrixKm(sources, destinations);
+        }
+        double[][] result = new double[sources.size()][destinations.size()];
+        if (sources.isEmpty() || destinations.isEmpty()) {
+            return result;
+        }
+
+        int rows = Math.min(sources.size(), Math.max(MATRIX_MAX_LOCATIONS / 2, MATRIX_MAX_LOCATIONS - destinations.size()));
+        int cols = Math.min(destinations.size(), MATRIX_MAX_LOCATIONS - rows);
+        while ((long) rows * cols > MATRIX_MAX_ROUTES) {
+            if (rows > cols) {
+                rows--;
+            } else {
+                cols--;
+            }
+        }
+
+        for (int row = 0; row < sources.size(); row += rows) {
+            List<double[]> sourceTile = sources.subList(row, Math.min(row + rows, sources.size()));
+            for (int col = 0; col < destinations.size(); col += cols) {
+                List<double[]> destinationTile = destinations.subList(col, Math.min(col + cols, destinations.size()));
+                double[][] tile = fetchMatrixTileKm(sourceTile, destinationTile);
+                for (int i = 0; i < tile.length; i++) {
+                    System.arraycopy(tile[i], 0, result[row + i], col, tile[i].length);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sources are taken in blocks of up to half the location limit, counting only sources with at
+     * least one needed pair. Each block is paired with just the destinations its needed pairs
+     * reach, so the cross product of unrelated trips is never requested.
+     */
+    @Override
+    public double[][] getDistanceMatrixKm(List<double[]> sources, List<double[]> destinations, boolean[][] needed) {
+        if (estimator.isEstimateOnly()) {
+            return estimator.estimateMatrixKm(sources, destinations);
+        }
+        double[][] result = new double[sources.size()][destinations.size()];
+        for (double[] row : result) {
+            Arrays.fill(row, Double.NaN);
+        }
+
+        int blockRows = Math.max(1, Math.min(MATRIX_MAX_LOCATIONS / 2, MATRIX_MAX_ROUTES));
+        List<Integer> blockSources = new ArrayList<>(blockRows);
+        for (int i = 0; i < sources.size(); i++) {
+            if (contains(needed[i])) {
+                blockSources.add(i);
+            }
+            if (blockSources.size() == blockRows || (i == sources.size() - 1 && !blockSources.isEmpty())) {
+                fetchBlockKm(sources, destinations, needed, blockSources, result);
+                blockSources.clear();
+            }
+        }
+        return result;
+    }
+
+    private void fetchBlockKm(List<double[]> sources, List<double[]> destinations, boolean[][] needed,
+                              List<Integer> blockSources, double[][] result) {
+        Map<Integer, Integer> blockDestinations = new LinkedHashMap<>();
+        for (int i : blockSources) {
+            for (int j = 0; j < destinations.size(); j++) {
+                if (needed[i][j]) {
+                    blockDestinations.putIfAbsent(j, blockDestinations.size());
+                }
+            }
+        }
+        double[][] block = getDistanceMatrixKm(
+                blockSources.stream().map(sources::get).toList(),
+                blockDestinations.keySet().stream().map(destinations::get).toList());
+        for (int row = 0; row < blockSources.size(); row++) {
+            double[] target = result[blockSources.get(row)];
+            double[] fetched = block[row];
+            blockDestinations.forEach((j, col) -> target[j] = fetched[col]);
+        }
+    }
+
+    private static boolean contains(boolean[] flags) {
+        for (boolean flag : flags) {
+            if (flag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public DistanceMatrix getDistanceMatrix(List<String> origins, List<String> destinations) {
+        List<String> cities = new ArrayList<>(origins);
+        cities.addAll(destinations);
+        Map<String, double[]> coordinates = resolveCoordinates(cities);
+
+        double[][] distances = new double[origins.size()][destinations.size()];
+        Map<String, Integer> missingOrigins = new LinkedHashMap<>();
+        Map<String, Integer> missingDestinations = new LinkedHashMap<>();
+
+        for (int i = 0; i < origins.size(); i++) {
+            String originKey = GeocodeCache.normalize(origins.get(i));
+            for (int j = 0; j < destinations.size(); j++) {
+                String destinationKey = GeocodeCache.normalize(destinations.get(j));
+                Double cached = distanceCache.get(coordinates.get(originKey), coordinates.get(destinationKey));
+                if (cached != null) {
+                    distances[i][j] = cached;
+                } else {
+                    distances[i][j] = Double.NaN;
+                    missingOrigins.putIfAbsent(originKey, missingOrigins.size());
+                    missingDestinations.putIfAbsent(destinationKey, missingDestinations.size());
+                }
+            }
+        }
+
+        if (!missingOrigins.isEmpty()) {
+            boolean[][] needed = new boolean[missingOrigins.size()][missingDestinations.size()];
+            for (int i = 0; i < origins.size(); i++) {
+                for (int j = 0; j < destinations.size(); j++) {
+                    if (Double.isNaN(distances[i][j])) {
+                        needed[missingOrigins.get(GeocodeCache.normalize(origins.get(i)))]
+                                [missingDestinations.get(GeocodeCache.normalize(destinations.get(j)))] = true;
+                    }
+                }
+            }
+            double[][] fetched = getDistanceMatrixKm(
+                    missingOrigins.keySet().stream().map(coordinates::get).toList(),
+                    missingDestinations.keySet().stream().map(coordinates::get).toList(), needed);
+
+            for (int i = 0; i < origins.size(); i++) {
+                String originKey = GeocodeCache.normalize(origins.get(i));
+                for (int j = 0; j < destinations.size(); j++) {
+                    if (Double.isNaN(distances[i][j])) {
+                        String destinationKey = GeocodeCache.normalize(destinations.get(j));
+                        distances[i][j] = fetched[missingOrigins.get(originKey)][missingDestinations.get(destinationKey)];
+                        if (!estimator.isEstimateOnly()) {
+                            distanceCache.put(coordinates.get(originKey), coordinates.get(destinationKey), distances[i][j]);
+                        }
+                    }
+                }
+            }
+        }
+
+        return new DistanceMatrix(List.copyOf(origins), List.copyOf(destinations), distances, null, null);
+    }
+
+    @Override
+    public DistanceMatrix getCo2Matrix(List<String> origins, List<String> destinations, String transportMethod) {
+        int rate = emissionRate(TransportMethod.table(), transportMethod);
+
+        DistanceMatrix matrix = getDistanceMatrix(origins, destinations);
+        double[][] distances = matrix.getDistancesKm();
+        double[][] co2 = new double[distances.length][];
+        for (int i = 0; i < distances.length; i++) {
+            co2[i] = new double[distances[i].length];
+            for (int j = 0; j < distances[i].length; j++) {
+                co2[i][j] = co2Kg(distances[i][j], rate);
+            }
+        }
+        return new DistanceMatrix(matrix.getOrigins(), matrix.getDestinations(), distances, transportMethod, co2);
+    }
+
+    /**
+     * Calculates a multi-stop trip leg by leg. Every distinct stop is geocoded once, and all
+     * uncached legs are answered by one matrix request over the distinct stops, with the leg
+     * origins as sources and the leg ends as destinations. Consecutive stops in the same city
+     * make a zero-length leg.
+     */
+    @Override
+    public ItineraryResponseDTO calculateItinerary(List<String> stops, List<String> transportMethods) {
+        if (stops == null || stops.size() < 2) {
+            throw new BadRequestException(buildErrorMessage("itinerary.stops", stops == null ? 0 : stops.size()));
+        }
+        int legs = stops.size() - 1;
+        if (transportMethods == null || (transportMethods.size() != 1 && transportMethods.size() != legs)) {
+            throw new BadRequestException(buildErrorMessage("itinerary.methods", legs, transportMethods == null ? 0 : transportMethods.size()));
+        }
+
+        EmissionTable emissions = TransportMethod.table();
+        int[] rates = new int[legs];
+        for (int leg = 0; leg < legs; leg++) {
+            rates[leg] = emissionRate(emissions, legMethod(transportMethods, leg));
+        }
+
+        double[] distances = metrics.record(Co2Metrics.TRIP, () -> resolveLegDistancesKm(stops));
+
+        List<Co2CalculateResponseDTO> results = new ArrayList<>(legs);
+        double totalKm = 0;
+        double totalCo2Kg = 0;
+        for (int leg = 0; leg < legs; leg++) {
+            double co2Kg = co2Kg(distances[leg], rates[leg]);
+            results.add(new Co2CalculateResponseDTO(stops.get(leg), stops.get(leg + 1), legMethod(transportMethods, leg), distances[leg], co2Kg));
+            totalKm += distances[leg];
+            totalCo2Kg += co2Kg;
+        }
+        return new ItineraryResponseDTO(results, totalKm, totalCo2Kg);
+    }
+
+    private static String legMethod(List<String> transportMethods, int leg) {
+        return transportMethods.size() == 1 ? transportMethods.get(0) : transportMethods.get(leg);
+    }
+
+    private double[] resolveLegDistancesKm(List<String> stops) {
+        Map<String, double[]> coordinates = resolveCoordinates(stops);
+        List<String> keys = stops.stream().map(GeocodeCache::normalize).toList();
+
+        double[] distances = new double[stops.size() - 1];
+        List<Integer> uncached = new ArrayList<>();
+        for (int leg = 0; leg < distances.length; leg++) {
+            if (keys.get(leg).equals(keys.get(leg + 1))) {
+                continue;
+            }
+            double[] from = coordinates.get(keys.get(leg));
+            double[] to = coordinates.get(keys.get(leg + 1));
+            Double cached = distanceCache.get(from, to);
+            if (cached != null) {
+                distances[leg] = cached;
+            } else if (estimator.isEstimateOnly()) {
+                distances[leg] = estimator.estimateKm(from, to);
+            } else {
+                uncached.add(leg);
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            fetchLegDistancesKm(stops, keys, coordinates, uncached, distances);
+        }
+        return distances;
+    }
+
+    private void fetchLegDistancesKm(List<String> stops, List<String> keys, Map<String, double[]> coordinates,
+                                     List<Integer> legs, double[] distances) {
+        // One location per distinct stop; sources and destinations refer to them by index.
+        Map<String, Integer> locationIndex = new LinkedHashMap<>();
+        Map<Integer, Integer> sourceRows = new LinkedHashMap<>();
+        Map<Integer, Integer> destinationCols = new LinkedHashMap<>();
+        for (int leg : legs) {
+            int from = locationIndex.computeIfAbsent(keys.get(leg), key -> locationIndex.size());
+            int to = locationIndex.computeIfAbsent(keys.get(leg + 1), key -> locationIndex.size());
+            sourceRows.putIfAbsent(from, sourceRows.size());
+            destinationCols.putIfAbsent(to, destinationCols.size());
+        }
+        List<double[]> locations = locationIndex.keySet().stream().map(coordinates::get).toList();
+        List<double[]> sources = sourceRows.keySet().stream().map(locations::get).toList();
+        List<double[]> destinations = destinationCols.keySet().stream().map(locations::get).toList();
 
+        double[][] matrix;
         try {
-            MatrixRequest request = new MatrixRequest(List.of(startCoords, endCoords));
-            String body = mapper.writeValueAsString(request);
+            if (locations.size() <= MATRIX_MAX_LOCATIONS && (long) sources.size() * destinations.size() <= MATRIX_MAX_ROUTES) {
+                MatrixRequest request = new MatrixRequest(locations, List.copyOf(sourceRows.keySet()), List.copyOf(destinationCols.keySet()));
+                matrix = postMatrix(request, sources.size(), destinations.size(),
+                        stops.get(0), String.join(", ", stops.subList(1, stops.size())));
+                for (double[] row : matrix) {
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] /= 1000.0;
+                    }
+                }
+                estimator.observeAll(sources, destinations, matrix);
+            } else {
+                matrix = getDistanceMatrixKm(sources, destinations);
+            }
+        } catch (CircuitOpenException e) {
+            for (int leg : legs) {
+                double[] from = coordinates.get(keys.get(leg));
+                double[] to = coordinates.get(keys.get(leg + 1));
+                Double stale = resilience.isServeStale() ? distanceCache.getStale(from, to) : null;
+                distances[leg] = stale != null ? stale : estimateOrThrow(from, to, e);
+            }
+            return;
+        } catch (NetworkException | InternalServerErrorException | TooManyRequestsException e) {
+            for (int leg : legs) {
+                distances[leg] = estimateOrThrow(coordinates.get(keys.get(leg)), coordinates.get(keys.get(leg + 1)), e);
+            }
+            return;
+        }
+
+        for (int leg : legs) {
+            int row = sourceRows.get(locationIndex.get(keys.get(leg)));
+            int col = destinationCols.get(locationIndex.get(keys.get(leg + 1)));
+            distances[leg] = matrix[row][col];
+            distanceCache.put(coordinates.get(keys.get(leg)), coordinates.get(keys.get(leg + 1)), distances[leg]);
+        }
+    }
+
+    /**
+     * Geocodes every distinct city once and returns the coordinates keyed by normalized name.
+     * Independent lookups run concurrently on the geocode executor; the first failure is
+     * rethrown as-is and the whole step is bounded by {@code GEOCODE_DEADLINE_MS}. Cancelling a
+     * lookup does not interrupt a request already in flight: it keeps its executor thread until the
+     * provider answers or the read timeout expires, and its result still fills the caches.
+     */
+    private Map<String, double[]> resolveCoordinates(List<String> cities) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (String city : cities) {
+            if (StringUtils.isBlank(city)) {
+                throw new BadRequestException(buildErrorMessage("city.blank"));
+            }
+            unique.putIfAbsent(GeocodeCache.normalize(city), city);
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set(HttpHeaders.AUTHORIZATION, ORS_TOKEN);
+        Map<String, double[]> coordinates = new HashMap<>();
+        if (unique.size() == 1) {
+            unique.forEach((key, city) -> coordinates.put(key, getCoordinates(city)));
+            return coordinates;
+        }
 
-            HttpEntity<String> entity = new HttpEntity<>(body, headers);
-            ResponseEntity<String> response = restTemplate.exchange(MATRIX_API, HttpMethod.POST, entity, String.class);
+        Map<String, CompletableFuture<double[]>> lookups = new LinkedHashMap<>();
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+        unique.forEach((key, city) -> {
+            CompletableFuture<double[]> lookup = CompletableFuture.supplyAsync(() -> getCoordinates(city), geocodeExecutor);
+            lookup.whenComplete((coords, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+            lookups.put(key, lookup);
+        });
 
-            if (response.getBody() == null) {
-                throw new InternalServerErrorException(buildErrorMessage("matrix.empty.body", cityStart, cityEnd));
+        CompletableFuture<Void> all = CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0]));
+        try {
+            CompletableFuture.anyOf(all, firstFailure).get(GEOCODE_DEADLINE_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            lookups.values().forEach(lookup -> lookup.cancel(true));
+            throw new NetworkException(buildErrorMessage("geo.timeout", String.join(", ", unique.values()), GEOCODE_DEADLINE_MS), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lookups.values().forEach(lookup -> lookup.cancel(true));
+            throw new NetworkException(buildErrorMessage("geo.network", String.join(", ", unique.values()), e.getMessage()), e);
+        } catch (ExecutionException e) {
+            lookups.values().forEach(lookup -> lookup.cancel(true));
+            Throwable cause = unwrap(e);
+            if (cause instanceof ApiException apiException) {
+                throw apiException;
             }
+            throw new InternalServerErrorException(buildErrorMessage("geo.server.generic", String.join(", ", unique.values()), cause.getMessage()));
+        }
 
-            JsonNode res = mapper.readTree(response.getBody());
-            JsonNode distances = res.get(AppConstants.DISTANCES);
+        lookups.forEach((key, lookup) -> coordinates.put(key, lookup.join()));
+        return coordinates;
+    }
 
-            if (distances == null || !distances.isArray() || distances.isEmpty() || distances.get(0).size() < 2) {
-                throw new InternalServerErrorException(buildErrorMessage("matrix.empty.data", cityStart, cityEnd));
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private double[][] fetchMatrixTileKm(List<double[]> sources, List<double[]> destinations) {
+        List<double[]> locations = new ArrayList<>(sources.size() + destinations.size());
+        locations.addAll(sources);
+        locations.addAll(destinations);
+        List<Integer> sourceIndices = IntStream.range(0, sources.size()).boxed().toList();
+        List<Integer> destinationIndices = IntStream.range(sources.size(), locations.size()).boxed().toList();
+
+        String sourceLabel = sources.size() + " origins";
+        String destinationLabel = destinations.size() + " destinations";
+        double[][] tile = postMatrix(new MatrixRequest(locations, sourceIndices, destinationIndices),
+                sources.size(), destinations.size(), sourceLabel, destinationLabel);
+
+        for (double[] row : tile) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] /= 1000.0;
             }
+        }
+        estimator.observeAll(sources, destinations, tile);
+        return tile;
+    }
+
+    /**
+     * Posts a matrix request and streams the top-left {@code rows} x {@code cols} block of the
+     * returned distances, in metres, straight into a primitive array.
+     */
+    private double[][] postMatrix(MatrixRequest request, int rows, int cols, String from, String to) {
+        return callProvider(OrsEndpoint.MATRIX, () -> executeMatrix(request, rows, cols, from, to));
+    }
+
+    /**
+     * Every provider call goes through the retry and circuit-breaker layer, and each attempt
+     * through the rate limiter, so retries are throttled like any other request.
+     */
+    private <T> T callProvider(OrsEndpoint endpoint, Supplier<T> request) {
+        return metrics.record(endpoint.stage(), () -> resilience.call(endpoint, () -> throttle.call(endpoint, request)));
+    }
+
+    private double[][] executeMatrix(MatrixRequest request, int rows, int cols, String from, String to) {
+        try {
+            byte[] body = mapper.writeValueAsBytes(request);
 
-            return distances.get(0).get(1).asDouble() / 1000.0;
+            RequestCallback requestCallback = httpRequest -> {
+                httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                httpRequest.getHeaders().set(HttpHeaders.AUTHORIZATION, ORS_TOKEN);
+                httpRequest.getBody().write(body);
+            };
+
+            double[][] distances = restTemplate.execute(MATRIX_API, HttpMethod.POST, requestCallback, response -> {
+                try (JsonParser parser = mapper.getFactory().createParser(response.getBody())) {
+                    long start = System.nanoTime();
+                    if (parser.nextToken() == null) {
+                        throw new InternalServerErrorException(buildErrorMessage("matrix.empty.body", from, to));
+                    }
+                    double[][] parsed = OrsResponseParser.readDistances(parser, rows, cols);
+                    metrics.recordTime(Co2Metrics.PARSE, System.nanoTime() - start);
+                    return parsed;
+                } catch (JsonProcessingException e) {
+                    throw new InternalServerErrorException(buildErrorMessage("matrix.server.generic", from, to, e.getOriginalMessage()));
+                }
+            });
+
+            if (distances == null) {
+                throw new InternalServerErrorException(buildErrorMessage("matrix.empty.data", from, to));
+            }
+
+            return distances;
 
         } catch (RestClientResponseException e) {
-            handleMatrixException(cityStart, cityEnd, e);
-            return 0;
+            handleMatrixException(from, to, e);
+            return null;
         } catch (ResourceAccessException e) {
-            throw new NetworkException(buildErrorMessage("matrix.network", cityStart, cityEnd, e.getMessage()), e);
+            throw new NetworkException(buildErrorMessage("matrix.network", from, to, e.getMessage()), e);
         } catch (Exception e) {
-            throw new InternalServerErrorException(buildErrorMessage("matrix.server.generic", cityStart, cityEnd, e.getMessage()));
+            throw new InternalServerErrorException(buildErrorMessage("matrix.server.generic", from, to, e.getMessage()));
         }
     }
 
 
     @Override
     public double calculateCo2Kg(double distanceKm, String transportMethod) {
-        Integer rate = TransportMethod.getEmissionRate(transportMethod);
-        if (rate == null) {
+        return co2Kg(distanceKm, emissionRate(TransportMethod.table(), transportMethod));
+    }
+
+    /**
+     * Writes {@code calculateCo2Kg(distancesKm[i], method(methodOrdinals[i]))} into {@code out[i]}
+     * without allocating per element. Inputs of {@code BULK_PARALLEL_THRESHOLD} elements or more are
+     * split across the common fork-join pool.
+     */
+    @Override
+    public void calculateCo2Kg(double[] distancesKm, int[] methodOrdinals, double[] out) {
+        if (methodOrdinals.length != distancesKm.length || out.length < distancesKm.length) {
+            throw new BadRequestException(buildErrorMessage("bulk.length.mismatch",
+                    distancesKm.length, methodOrdinals.length, out.length));
+        }
+        EmissionTable emissions = TransportMethod.table();
+        // Checked up front against the same snapshot, so out is left untouched on failure.
+        int methods = emissions.size();
+        for (int ordinal : methodOrdinals) {
+            if (ordinal < 0 || ordinal >= methods) {
+                throw new UnknownTransportMethodException(buildErrorMessage("transport.unknown", "#" + ordinal));
+            }
+        }
+        BulkCo2Task task = new BulkCo2Task(distancesKm, methodOrdinals, emissions, out, 0, distancesKm.length);
+        if (distancesKm.length < BulkCo2Task.PARALLEL_THRESHOLD) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    private int emissionRate(EmissionTable emissions, String transportMethod) {
+        int ordinal = emissions.ordinal(transportMethod);
+        if (ordinal < 0) {
             throw new UnknownTransportMethodException(buildErrorMessage("transport.unknown", transportMethod));
         }
+        return emissions.rate(ordinal);
+    }
+
+    /**
+     * The CO2 formula shared by the scalar and bulk paths, so both round identically.
+     */
+    static double co2Kg(double distanceKm, int rate) {
         return Math.round((distanceKm * rate / 1000.0) * 10.0) / 10.0;
     }
 
+    @Override
     public double[] getCoordinates(String city) {
         if (StringUtils.isBlank(city)) {
             throw new BadRequestException(buildErrorMessage("city.blank"));
         }
 
-        try {
-            String url = GEO_CODE_API + "?api_key=" + ORS_TOKEN + "&text=" + city + "&layers=locality";
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        double[] cached = geocodeCache.get(city);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Concurrent misses for the same city share one lookup; each caller gets its own copy.
+        return geocodeFlight.execute(GeocodeCache.normalize(city), () -> loadCoordinates(city)).clone();
+    }
 
-            if (response.getBody() == null) {
-                throw new InternalServerErrorException(buildErrorMessage("geo.empty.body", city));
+    private double[] loadCoordinates(String city) {
+        double[] stored = geocodeStore.get(city);
+        if (stored != null) {
+            geocodeCache.put(city, stored);
+            return stored;
+        }
+
+        double[] local = gazetteerCoordinates(city);
+        if (local != null) {
+            return local;
+        }
+
+        try {
+            double[] coords = callProvider(OrsEndpoint.GEOCODE, () -> fetchCoordinates(city));
+            geocodeCache.put(city, coords);
+            geocodeStore.put(city, coords);
+            return coords;
+        } catch (CityNotFoundException e) {
+            geocodeCache.putNotFound(city, e.getMessage());
+            throw e;
+        } catch (CircuitOpenException e) {
+            double[] stale = resilience.isServeStale() ? geocodeCache.getStale(city) : null;
+            if (stale == null) {
+                throw e;
             }
+            return stale;
+        }
+    }
 
-            JsonNode root = mapper.readTree(response.getBody());
-            JsonNode features = root.get(AppConstants.FEATURES);
+    /**
+     * Coordinates from the gazetteer, or {@code null}. Only exact name matches are cached; a prefix
+     * or fuzzy match is answered but not remembered, so the name as typed is looked up again next time.
+     */
+    private double[] gazetteerCoordinates(String city) {
+        Gazetteer.Match match = gazetteer.find(city);
+        if (match == null) {
+            return null;
+        }
+        metrics.count("co2.gazetteer.hits", Co2Metrics.GEOCODE);
+        if (match.type() == Gazetteer.MatchType.EXACT) {
+            geocodeCache.put(city, match.coordinates());
+        } else {
+            log.debug("Resolved {} to gazetteer {} match {}", city, match.type(), match.name());
+        }
+        return match.coordinates();
+    }
 
-            if (features == null || !features.isArray() || features.isEmpty()) {
+    private double[] fetchCoordinates(String city) {
+        try {
+            String url = GEO_CODE_API + "?api_key=" + ORS_TOKEN + "&text=" + city + "&layers=locality";
+            double[] coords = restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                try (JsonParser parser = mapper.getFactory().createParser(response.getBody())) {
+                    long start = System.nanoTime();
+                    if (parser.nextToken() == null) {
+                        throw new InternalServerErrorException(buildErrorMessage("geo.empty.body", city));
+                    }
+                    double[] parsed = OrsResponseParser.readFirstFeatureCoordinates(parser);
+                    metrics.recordTime(Co2Metrics.PARSE, System.nanoTime() - start);
+                    return parsed;
+                } catch (JsonProcessingException e) {
+                    throw new InternalServerErrorException(buildErrorMessage("geo.server.generic", city, e.getOriginalMessage()));
+                }
+            });
+
+            if (coords == null) {
                 throw new CityNotFoundException(buildErrorMessage("geo.notfound", city));
             }
 
-            JsonNode geometry = features.get(0).get(AppConstants.GEOMETRY);
-            JsonNode coords = (geometry != null) ? geometry.get(AppConstants.COORDINATES) : null;
-
-            if (coords == null || !coords.isArray() || coords.size() < 2) {
+            if (coords.length < 2) {
                 throw new InternalServerErrorException(buildErrorMessage("geo.invalid.coords", city));
             }
 
-            return new double[]{coords.get(0).asDouble(), coords.get(1).asDouble()};
+            return coords;
 
         } catch (CityNotFoundException e) {
             throw e;
@@ -157,6 +805,8 @@ public class Co2CalculatorServiceImpl implements Co2CalculatorService {
         var statusCode = e.getStatusCode();
         if (statusCode.isSameCodeAs(HttpStatus.FORBIDDEN)) {
             throw new ForbiddenException(buildErrorMessage("geo.forbidden", city, e.getResponseBodyAsString()));
+        } else if (statusCode.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            throw new TooManyRequestsException(buildErrorMessage("geo.rate.limited", city, e.getResponseBodyAsString()), retryAfterMillis(e));
         } else if (statusCode.is4xxClientError()) {
             throw new BadRequestException(buildErrorMessage("geo.client.error", city, statusCode.value(), e.getResponseBodyAsString()));
         } else {
@@ -168,6 +818,8 @@ public class Co2CalculatorServiceImpl implements Co2CalculatorService {
         var statusCode = e.getStatusCode();
         if (statusCode.isSameCodeAs(HttpStatus.FORBIDDEN)) {
             throw new ForbiddenException(buildErrorMessage("matrix.forbidden", cityStart, cityEnd, e.getResponseBodyAsString()));
+        } else if (statusCode.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            throw new TooManyRequestsException(buildErrorMessage("matrix.rate.limited", cityStart, cityEnd, e.getResponseBodyAsString()), retryAfterMillis(e));
         } else if (statusCode.is4xxClientError()) {
             throw new BadRequestException(buildErrorMessage("matrix.client.error", cityStart, cityEnd, statusCode.value(), e.getResponseBodyAsString()));
         } else {
@@ -175,4 +827,34 @@ public class Co2CalculatorServiceImpl implements Co2CalculatorService {
         }
     }
 
+    /**
+     * Reads {@code Retry-After} as delay-seconds or an HTTP date; 0 if absent or unparseable.
+     */
+    private static long retryAfterMillis(RestClientResponseException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        return retryAfterMillis(headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null);
+    }
+
+    static long retryAfterMillis(String value) {
+        if (StringUtils.isBlank(value)) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException notSeconds) {
+            try {
+                return Math.max(0, Duration.between(Instant.now(), ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)).toMillis());
+            } catch (DateTimeParseException notDate) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Geocode pool of the standalone constructor, created on first use.
+     */
+    private static final class SharedGeocodeExecutor {
+        static final ExecutorService INSTANCE = Executors.newFixedThreadPool(4, new NamedThreadFactory("geocode"));
+    }
+
 }
\ No newline at end of file
@@ -21,6 +21,15 @@ public interface AppConstants {
         String START = "start";
         String END = "end";
         String TRANSPORTATION_METHOD ="transportation-method";
+        String INPUT = "input";
+        String OUTPUT = "output";
+        String AGGREGATE = "aggregate";
+        String GROUP_BY = "group-by";
+        String WARM_UP = "warm-up";
+        String VIA = "via";
+        String REPL = "repl";
+        String SERVER = "server";
+        String METRICS = "metrics";
         String DISTANCES = "distances";
         String DISTANCE = "distance";
         String CO2_KG = "co2Kg";
@@ -32,6 +41,9 @@ public interface AppConstants {
 //        API_REQUEST_URL
         String API_CO2 = "/api/co2";
         String CALCULATE = "calculate";
+        String BULK = "bulk";
+        String ASYNC = "async";
+        String ITINERARY = "itinerary";
 
 
 
@@ -8,12 +8,13 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.TYPE_USE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 
 @Documented
 @Constraint(validatedBy = TransportationMethodValidator.class)
-@Target({FIELD})
+@Target({FIELD, TYPE_USE})
 @Retention(RUNTIME)
 public @interface ValidTransportationMethod {
     String message() default "Invalid transportation method. Please choose from a valid list.";
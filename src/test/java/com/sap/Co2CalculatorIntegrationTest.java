@@ -5,6 +5,7 @@ import com.sap.exception.CityNotFoundException;
 import com.sap.exception.UnknownTransportMethodException;
 import com.sap.model.dto.Co2CalculateRequestDTO;
 import com.sap.service.Co2CalculatorService;
+import com.sap.service.DistanceEstimator;
 import com.sap.utility.AppConstants;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Disabled;
@@ -39,6 +40,9 @@ class Co2CalculatorIntegrationTest {
     @Autowired
     private Co2CalculatorService co2Service;
 
+    @Autowired
+    private DistanceEstimator distanceEstimator;
+
     @Mock
     private RestTemplate restTemplate;
 
@@ -154,4 +158,10 @@ class Co2CalculatorIntegrationTest {
 
         assertEquals("City name must not be blank.", exception.getMessage());
     }
+
+    @Test
+    void testDistanceEstimatesAreOptIn() {
+        assertFalse(distanceEstimator.isFallback());
+        assertFalse(distanceEstimator.isEstimateOnly());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.sap.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeStore;
+import com.sap.load.LoadStack;
+import com.sap.load.OrsStubServer;
+import com.sap.service.impl.Co2CalculatorServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWarmerTest {
+
+    @Test
+    void testWarmUpPrefetchesTopCitiesAndPairsAndReportsWarmHits() throws Exception {
+        String history = """
+                start,end,transportation-method
+                Berlin,Hamburg,bus-default
+                Berlin,Hamburg,bus-default
+                Munich,Cologne,bus-default
+                Berlin,Munich,bus-default
+                Dresden,Leipzig,bus-default
+                """;
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4);
+             LoadStack stack = new LoadStack(stub, 1000, 4)) {
+            Co2CalculatorServiceImpl service = stack.service();
+            CacheWarmer warmer = new CacheWarmer(service, service.getGeocodeCache(), service.getDistanceCache(),
+                    GeocodeStore.disabled(), Gazetteer.disabled(), 2, 3, 2, 10, 0);
+
+            WarmupSummary summary = warmer.warmUp(reader(history));
+
+            assertEquals(5, summary.getHistoryTrips());
+            assertEquals(3, summary.getCitiesWarmed());
+            assertEquals(2, summary.getPairsWarmed());
+            assertEquals(0, summary.getFailed());
+            assertEquals(5, stub.geocodeRequests());
+            assertEquals(2, stub.matrixRequests());
+
+            service.getDistanceKm("Berlin", "Hamburg");
+            service.getDistanceKm("Dresden", "Leipzig");
+            service.getDistanceKm("Cologne", "Hamburg");
+
+            assertEquals(6, stub.geocodeRequests());
+            assertEquals(3, stub.matrixRequests());
+            assertEquals("Served warm: 5 of 6 geocode lookups (83.3%), 2 of 3 distance lookups (66.7%)",
+                    warmer.servedWarm(summary));
+        }
+    }
+
+    @Test
+    void testPairWarmUpDoesNotStarveTheServiceGeocodeExecutor() throws Exception {
+        String history = """
+                start,end,transportation-method
+                Berlin,Hamburg,bus-default
+                Munich,Cologne,bus-default
+                Dresden,Leipzig,bus-default
+                """;
+        // One geocode thread: a pair lookup holding it would wait on its own queued geocode tasks.
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4);
+             LoadStack stack = new LoadStack(stub, 1000, 1)) {
+            Co2CalculatorServiceImpl service = stack.service();
+            CacheWarmer warmer = new CacheWarmer(service, service.getGeocodeCache(), service.getDistanceCache(),
+                    GeocodeStore.disabled(), Gazetteer.disabled(), 2, 0, 3, 10, 0);
+
+            WarmupSummary summary = warmer.warmUp(reader(history));
+
+            assertEquals(3, summary.getPairsWarmed());
+            assertEquals(0, summary.getFailed());
+            assertEquals(6, stub.geocodeRequests());
+        }
+    }
+
+    @Test
+    void testCachedEntriesAreNotPaced() throws Exception {
+        String history = """
+                start,end,transportation-method
+                Berlin,Hamburg,bus-default
+                Munich,Cologne,bus-default
+                """;
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4);
+             LoadStack stack = new LoadStack(stub, 1000, 4)) {
+            Co2CalculatorServiceImpl service = stack.service();
+            new CacheWarmer(service, service.getGeocodeCache(), service.getDistanceCache(),
+                    GeocodeStore.disabled(), Gazetteer.disabled(), 2, 4, 2, 10, 0).warmUp(reader(history));
+
+            // One provider lookup a minute: anything paced would not finish in time.
+            CacheWarmer slow = new CacheWarmer(service, service.getGeocodeCache(), service.getDistanceCache(),
+                    GeocodeStore.disabled(), Gazetteer.disabled(), 2, 4, 2, 10, 1);
+            WarmupSummary summary = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> slow.warmUp(reader(history)));
+
+            assertEquals(4, summary.getCitiesWarmed());
+            assertEquals(2, summary.getPairsWarmed());
+            assertEquals(4, stub.geocodeRequests());
+            assertEquals(2, stub.matrixRequests());
+        }
+    }
+
+    private TripRecordReader reader(String csv) {
+        return new TripRecordReader(new BufferedReader(new StringReader(csv)), TripRecordReader.Format.CSV, new ObjectMapper());
+    }
+}
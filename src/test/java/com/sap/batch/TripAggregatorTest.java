@@ -0,0 +1,125 @@
+package com.sap.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.exception.UnknownTransportMethodException;
+import com.sap.service.Co2CalculatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripAggregatorTest {
+
+    @Mock
+    private Co2CalculatorService co2Service;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(co2Service.calculateCo2Kg(anyDouble(), anyString()))
+                .thenAnswer(invocation -> (double) invocation.getArgument(0) / 10);
+        lenient().when(co2Service.calculateCo2Kg(anyDouble(), eq("rocket")))
+                .thenThrow(new UnknownTransportMethodException("Unknown transportation method: rocket"));
+    }
+
+    @Test
+    void testCsvTotalsPerGroupingWithFailedRows() throws Exception {
+        String csv = """
+                employee,cost-center,date,transportation-method,distance-km,notes
+                alice,CC-1,2024-03-04,train-default,100,"Berlin, Hamburg"
+                bob,CC-1,2024-03-20,bus-default,50
+                alice,CC-2,2024-04-01T08:30:00,train-default,200
+
+                carol,CC-2,2024-13-01,train-default,10
+                carol,CC-2,2024-04-02,rocket,10
+                carol,CC-2,2024-04-03,bus-default,far
+                """;
+
+        AggregationReport report = aggregate(csv, TripRecordReader.Format.CSV, "employee,cost-center+month", 1, 4096);
+
+        assertEquals(3, report.getSucceeded());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(
+                "line 6: Invalid date: 2024-13-01",
+                "line 7: Unknown transportation method: rocket",
+                "line 8: Invalid distance-km: far"), report.getErrors());
+
+        GroupTotals employees = report.grouping("employee");
+        assertEquals(2, employees.trips("alice"));
+        assertEquals(300.0, employees.distanceKm("alice"));
+        assertEquals(30.0, employees.co2Kg("alice"));
+        assertEquals(1, employees.trips("bob"));
+
+        GroupTotals costCenterMonth = report.grouping("cost-center+month");
+        assertEquals(2, costCenterMonth.trips("CC-1|2024-03"));
+        assertEquals(15.0, costCenterMonth.co2Kg("CC-1|2024-03"));
+        assertEquals(1, costCenterMonth.trips("CC-2|2024-04"));
+
+        StringWriter out = new StringWriter();
+        report.write(out);
+        assertEquals(String.join(System.lineSeparator(),
+                "group_by,group,trips,distance_km,co2_kg",
+                "employee,alice,2,300.000,30.000",
+                "employee,bob,1,50.000,5.000",
+                "cost-center+month,CC-1|2024-03,2,150.000,15.000",
+                "cost-center+month,CC-2|2024-04,1,200.000,20.000",
+                ""), out.toString());
+    }
+
+    @Test
+    void testParallelPartitionsMatchSingleThread() throws Exception {
+        StringBuilder jsonl = new StringBuilder();
+        String[] methods = {"bus-default", "train-default", "diesel-car-small"};
+        for (int i = 0; i < 5000; i++) {
+            jsonl.append(String.format("{\"employee\":\"e%d\",\"costCenter\":\"CC-%d\",\"date\":\"2023-%02d-15\",\"transportationMethod\":\"%s\",\"distanceKm\":%d}%n",
+                    i % 37, i % 5, i % 12 + 1, methods[i % 3], i % 400));
+        }
+        jsonl.append("not json").append(System.lineSeparator());
+
+        AggregationReport single = aggregate(jsonl.toString(), TripRecordReader.Format.JSONL, null, 1, 5000);
+        AggregationReport parallel = aggregate(jsonl.toString(), TripRecordReader.Format.JSONL, null, 4, 7);
+
+        assertEquals(5000, parallel.getSucceeded());
+        assertEquals(1, parallel.getFailed());
+        assertTrue(parallel.getErrors().get(0).startsWith("line 5001: Invalid JSON record"));
+        assertEquals(37, parallel.grouping("employee").size());
+        assertEquals(12, parallel.grouping("month").size());
+
+        StringWriter expected = new StringWriter();
+        StringWriter actual = new StringWriter();
+        single.write(expected);
+        parallel.write(actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void testMissingColumnFailsBeforeReadingRows() {
+        String csv = """
+                employee,transportation-method,distance-km
+                alice,train-default,100
+                """;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> aggregate(csv, TripRecordReader.Format.CSV, "month", 1, 4096));
+        assertEquals("Missing column: month", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> AggregateField.parseGroupBy("employee,country"));
+    }
+
+    private AggregationReport aggregate(String input, TripRecordReader.Format format, String groupBy,
+                                        int threads, int blockLines) throws Exception {
+        TripAggregator aggregator = new TripAggregator(co2Service, mapper, threads, blockLines);
+        return aggregator.aggregate(new BufferedReader(new StringReader(input)), format, AggregateField.parseGroupBy(groupBy));
+    }
+}
@@ -0,0 +1,148 @@
+package com.sap.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.exception.CityNotFoundException;
+import com.sap.load.LoadStack;
+import com.sap.load.OrsStubServer;
+import com.sap.service.Co2CalculatorService;
+import com.sap.service.DistanceEstimator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripBatchProcessorTest {
+
+    @Mock
+    private Co2CalculatorService co2Service;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private TripBatchProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new TripBatchProcessor(co2Service, new DistanceCache(100, 60, true), DistanceEstimator.disabled(),
+                Validation.buildDefaultValidatorFactory().getValidator(), mapper, Executors.newFixedThreadPool(2), 100);
+
+        lenient().when(co2Service.getCoordinates("Berlin")).thenReturn(new double[]{13.4, 52.5});
+        lenient().when(co2Service.getCoordinates("Hamburg")).thenReturn(new double[]{9.99, 53.55});
+        lenient().when(co2Service.getCoordinates("Atlantis")).thenThrow(new CityNotFoundException("City not found: Atlantis"));
+        lenient().when(co2Service.calculateCo2Kg(anyDouble(), anyString()))
+                .thenAnswer(invocation -> (double) invocation.getArgument(0));
+    }
+
+    @Test
+    void testCsvBatchResolvesEachCityOnce() throws Exception {
+        when(co2Service.getDistanceMatrixKm(anyList(), anyList(), any(boolean[][].class))).thenReturn(new double[][]{{289.0, 0.0}, {0.0, 289.0}});
+
+        String csv = """
+                start,end,transportation-method
+                Berlin,Hamburg,diesel-car-small
+                Hamburg,Berlin,petrol-car-small
+                Berlin,Hamburg,bus-default
+                """;
+
+        List<JsonNode> results = run(csv, TripRecordReader.Format.CSV);
+
+        assertEquals(3, results.size());
+        results.forEach(result -> assertEquals(289.0, result.get("distanceKm").asDouble()));
+        verify(co2Service, times(1)).getCoordinates("Berlin");
+        verify(co2Service, times(1)).getCoordinates("Hamburg");
+        verify(co2Service, times(1)).getDistanceMatrixKm(anyList(), anyList(), any(boolean[][].class));
+    }
+
+    @Test
+    void testJsonlFailuresReportedPerTrip() throws Exception {
+        when(co2Service.getDistanceMatrixKm(anyList(), anyList(), any(boolean[][].class))).thenReturn(new double[][]{{289.0}});
+
+        String jsonl = """
+                {"start":"Berlin","end":"Hamburg","transportationMethod":"diesel-car-small"}
+                {"start":"Berlin","end":"Atlantis","transportationMethod":"diesel-car-small"}
+                {"start":"Berlin","end":"Hamburg","transportationMethod":"rocket"}
+                not json
+                null
+                [1, 2]
+                """;
+
+        List<JsonNode> results = run(jsonl, TripRecordReader.Format.JSONL);
+
+        assertEquals(6, results.size());
+        assertEquals("Invalid JSON record: not an object", results.get(4).get("error").asText());
+        assertTrue(results.get(5).get("error").asText().startsWith("Invalid JSON record"));
+        assertEquals(289.0, results.get(0).get("distanceKm").asDouble());
+        assertEquals("City not found: Atlantis", results.get(1).get("error").asText());
+        assertTrue(results.get(2).get("error").asText().startsWith("Invalid transportation method"));
+        assertEquals(4, results.get(3).get("line").asLong());
+        assertTrue(results.get(3).has("error"));
+    }
+
+    @Test
+    void testEstimatesNotCachedInEstimateOnlyMode() throws Exception {
+        DistanceCache distanceCache = new DistanceCache(100, 60, true);
+        processor = new TripBatchProcessor(co2Service, distanceCache, new DistanceEstimator(true, false, 1.3, 10, 5),
+                Validation.buildDefaultValidatorFactory().getValidator(), mapper, Executors.newFixedThreadPool(2), 100);
+        when(co2Service.getDistanceMatrixKm(anyList(), anyList(), any(boolean[][].class))).thenReturn(new double[][]{{330.0}});
+
+        List<JsonNode> results = run("start,end,transportation-method\nBerlin,Hamburg,bus-default\n", TripRecordReader.Format.CSV);
+
+        assertEquals(330.0, results.get(0).get("distanceKm").asDouble());
+        assertNull(distanceCache.get(new double[]{13.4, 52.5}, new double[]{9.99, 53.55}));
+    }
+
+    @Test
+    void testSparseChunkFetchesOnlyTilesWithRequestedPairs() throws Exception {
+        StringBuilder csv = new StringBuilder("start,end,transportation-method\n");
+        for (int i = 0; i < 60; i++) {
+            csv.append("Origin ").append(i).append(",Destination ").append(i).append(",bus-default\n");
+        }
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4);
+             LoadStack stack = new LoadStack(stub, 1000, 4)) {
+            processor = new TripBatchProcessor(stack.service(), stack.service().getDistanceCache(), DistanceEstimator.disabled(),
+                    Validation.buildDefaultValidatorFactory().getValidator(), mapper, Executors.newFixedThreadPool(2), 100);
+
+            List<JsonNode> results = run(csv.toString(), TripRecordReader.Format.CSV);
+
+            assertEquals(60, results.size());
+            results.forEach(result -> assertFalse(result.has("error"), result.toString()));
+            // 60 unrelated trips in blocks of 25 origins with their own 25 destinations, not 3 x 3 tiles of the cross product.
+            assertEquals(3, stub.matrixRequests());
+            assertEquals(stack.service().getDistanceKm("Origin 59", "Destination 59"), results.get(59).get("distanceKm").asDouble());
+        }
+    }
+
+    @Test
+    void testSplitCsvQuotedValues() {
+        assertEquals(List.of("Frankfurt am Main", "Halle \"Saale\"", "bus-default"),
+                TripRecordReader.splitCsv("\"Frankfurt am Main\",\"Halle \"\"Saale\"\"\",bus-default"));
+    }
+
+    private List<JsonNode> run(String input, TripRecordReader.Format format) throws Exception {
+        StringWriter out = new StringWriter();
+        try (TripRecordReader reader = new TripRecordReader(new BufferedReader(new StringReader(input)), format, mapper)) {
+            processor.process(reader, out);
+        }
+        return out.toString().lines().map(line -> {
+            try {
+                return mapper.readTree(line);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).toList();
+    }
+}
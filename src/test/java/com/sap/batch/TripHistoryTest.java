@@ -0,0 +1,50 @@
+package com.sap.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripHistoryTest {
+
+    @Test
+    void testFrequentCitiesRankFirst() {
+        TripHistory history = new TripHistory(1_000_000);
+        history.add("Berlin", "Hamburg");
+        history.add("berlin ", "Munich");
+        history.add("Berlin", "Hamburg");
+        history.add("Cologne", "Hamburg");
+
+        // Equally frequent; Hamburg was seen last.
+        assertEquals(List.of("Hamburg", "Berlin"), history.topCities(2));
+        assertArrayEquals(new String[]{"Berlin", "Hamburg"}, history.topPairs(1).get(0));
+        assertEquals(4, history.distinctCities());
+        assertEquals(3, history.distinctPairs());
+        assertEquals(4, history.getTrips());
+    }
+
+    @Test
+    void testRecentTripsOutrankOldOnes() {
+        TripHistory history = new TripHistory(10);
+        for (int i = 0; i < 50; i++) {
+            history.add("Berlin", "Hamburg");
+        }
+        for (int i = 0; i < 20; i++) {
+            history.add("Munich", "Stuttgart");
+        }
+
+        assertEquals(List.of("Munich", "Stuttgart"), history.topCities(2).stream().sorted().toList());
+        assertArrayEquals(new String[]{"Munich", "Stuttgart"}, history.topPairs(2).get(0));
+    }
+
+    @Test
+    void testScoresStayFiniteOverLongHistories() {
+        TripHistory history = new TripHistory(1);
+        for (int i = 0; i < 5000; i++) {
+            history.add(i % 2 == 0 ? "Berlin" : "Bonn", "Hamburg");
+        }
+
+        assertEquals(List.of("Hamburg", "Bonn", "Berlin"), history.topCities(3));
+    }
+}
@@ -0,0 +1,64 @@
+package com.sap.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSingleFlightTest {
+
+    @Test
+    void testCallersShareOneLoad() {
+        AtomicInteger coalesced = new AtomicInteger();
+        AsyncSingleFlight<String, String> flight = new AsyncSingleFlight<>(coalesced::incrementAndGet);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("hamburg", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = flight.execute("hamburg", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        load.complete("53.55");
+
+        assertEquals("53.55", first.join());
+        assertEquals("53.55", second.join());
+        assertEquals(1, loads.get());
+        assertEquals(1, coalesced.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void testCancellingOneCallerKeepsTheLoadForTheOthers() {
+        AsyncSingleFlight<String, String> flight = new AsyncSingleFlight<>();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("hamburg", () -> load);
+        CompletableFuture<String> second = flight.execute("hamburg", () -> load);
+        first.cancel(true);
+        load.complete("53.55");
+
+        assertTrue(first.isCancelled());
+        assertEquals("53.55", second.join());
+    }
+
+    @Test
+    void testLoadIsCancelledOnceEveryCallerGaveUp() {
+        AsyncSingleFlight<String, String> flight = new AsyncSingleFlight<>();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("hamburg", () -> load);
+        CompletableFuture<String> second = flight.execute("hamburg", () -> load);
+        first.cancel(true);
+        second.cancel(true);
+
+        assertTrue(load.isCancelled());
+        assertEquals(0, flight.inFlight());
+        assertEquals("ok", flight.execute("hamburg", () -> CompletableFuture.completedFuture("ok")).join());
+    }
+}
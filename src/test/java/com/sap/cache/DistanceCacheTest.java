@@ -0,0 +1,37 @@
+package com.sap.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceCacheTest {
+
+    private static final double[] BERLIN = {13.4, 52.5};
+    private static final double[] HAMBURG = {9.99, 53.55};
+
+    @Test
+    void testSymmetricReuse() {
+        DistanceCache cache = new DistanceCache(10, 60, true);
+        cache.put(BERLIN, HAMBURG, 289.0);
+
+        assertEquals(289.0, cache.get(HAMBURG, BERLIN));
+    }
+
+    @Test
+    void testDirectionalWhenNotSymmetric() {
+        DistanceCache cache = new DistanceCache(10, 60, false);
+        cache.put(BERLIN, HAMBURG, 289.0);
+
+        assertEquals(289.0, cache.get(BERLIN, HAMBURG));
+        assertNull(cache.get(HAMBURG, BERLIN));
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void testCoordinateRounding() {
+        DistanceCache cache = new DistanceCache(10, 60, true);
+        cache.put(BERLIN, HAMBURG, 289.0);
+
+        assertEquals(289.0, cache.get(new double[]{13.400000001, 52.5}, HAMBURG));
+    }
+}
@@ -0,0 +1,79 @@
+package com.sap.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testExactMatchPrefersLargestPopulation() throws Exception {
+        Gazetteer gazetteer = gazetteer(1);
+
+        Gazetteer.Match match = gazetteer.find("  FRANKFURT am main ");
+        assertEquals(Gazetteer.MatchType.EXACT, match.type());
+        assertArrayEquals(new double[]{8.68417, 50.11552}, match.coordinates());
+
+        assertEquals(3_426_354, gazetteer.find("Berlin").population());
+        assertArrayEquals(new double[]{6.95, 50.93333}, gazetteer.get("Koeln"));
+    }
+
+    @Test
+    void testPrefixMatch() throws Exception {
+        Gazetteer gazetteer = gazetteer(1);
+
+        Gazetteer.Match match = gazetteer.find("Frankfurt");
+        assertEquals(Gazetteer.MatchType.PREFIX, match.type());
+        assertEquals("frankfurt am main", match.name());
+        assertNull(gazetteer.find("Ham"));
+    }
+
+    @Test
+    void testFuzzyMatchWithinEditDistance() throws Exception {
+        Gazetteer gazetteer = gazetteer(1);
+
+        assertEquals("hamburg", gazetteer.find("Hamburgg").name());
+        assertEquals("hamburg", gazetteer.find("Hambrug").name());
+        assertEquals(Gazetteer.MatchType.FUZZY, gazetteer.find("Hamborg").type());
+        assertNull(gazetteer.find("Hambxxg"));
+        assertNull(gazetteer(0).find("Hamburgg"));
+    }
+
+    @Test
+    void testOnlyPopulatedPlacesIndexed() throws Exception {
+        Gazetteer gazetteer = gazetteer(1);
+
+        assertNull(gazetteer.find("Rhein"));
+        assertEquals(6, gazetteer.size());
+        assertTrue(gazetteer.memoryBytes() > 0);
+        assertNull(Gazetteer.disabled().find("Berlin"));
+    }
+
+    private Gazetteer gazetteer(int maxEdits) throws Exception {
+        Path file = dir.resolve("cities.txt");
+        Files.write(file, List.of(
+                line(2950159, "Berlin", "Berlin", 52.52437, 13.41053, "P", 3_426_354),
+                line(5083330, "Berlin", "Berlin", 44.46867, -71.18508, "P", 9_367),
+                line(2911298, "Hamburg", "Hamburg", 53.57532, 10.01534, "P", 1_739_117),
+                line(2925533, "Frankfurt am Main", "Frankfurt am Main", 50.11552, 8.68417, "P", 650_000),
+                line(2925535, "Frankfurt (Oder)", "Frankfurt (Oder)", 52.34714, 14.55062, "P", 58_000),
+                line(2886242, "Köln", "Koeln", 50.93333, 6.95, "P", 963_395),
+                line(2847397, "Rhein", "Rhein", 51.85, 6.03, "H", 0),
+                "not a gazetteer line"));
+        return new Gazetteer(file.toString(), 0, false, 1000, 4, maxEdits);
+    }
+
+    private static String line(long id, String name, String asciiName, double latitude, double longitude,
+                               String featureClass, long population) {
+        return String.join("\t", Long.toString(id), name, asciiName, "", Double.toString(latitude), Double.toString(longitude),
+                featureClass, "PPL", "DE", "", "", "", "", "", Long.toString(population), "", "34", "Europe/Berlin", "2024-01-01");
+    }
+}
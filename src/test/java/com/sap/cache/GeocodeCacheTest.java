@@ -0,0 +1,98 @@
+package com.sap.cache;
+
+import com.sap.exception.CityNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeocodeCacheTest {
+
+    @Test
+    void testNormalizedKeyHit() {
+        GeocodeCache cache = new GeocodeCache(10, 60, 1);
+        cache.put("Hamburg", new double[]{9.99, 53.55});
+
+        double[] coords = cache.get("  hamburg ");
+
+        assertNotNull(coords);
+        assertEquals(9.99, coords[0]);
+        assertEquals(53.55, coords[1]);
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    void testMissCounted() {
+        GeocodeCache cache = new GeocodeCache(10, 60, 1);
+
+        assertNull(cache.get("Berlin"));
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void testNegativeEntryThrows() {
+        GeocodeCache cache = new GeocodeCache(10, 60, 1);
+        cache.putNotFound("Atlantis", "City not found: Atlantis");
+
+        CityNotFoundException exception = assertThrows(CityNotFoundException.class, () -> cache.get("ATLANTIS"));
+        assertEquals("City not found: Atlantis", exception.getMessage());
+    }
+
+    @Test
+    void testSizeEviction() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(2);
+        cache.put("a", "1", Long.MAX_VALUE / 2);
+        cache.put("b", "2", Long.MAX_VALUE / 2);
+        cache.get("a");
+        cache.put("c", "3", Long.MAX_VALUE / 2);
+
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void testTtlExpiration() {
+        AtomicLong now = new AtomicLong();
+        TtlLruCache<String, String> cache = new TtlLruCache<>(10, now::get);
+        cache.put("a", "1", 100);
+
+        now.set(99);
+        assertEquals("1", cache.get("a"));
+
+        now.set(100);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void testExpiredEntryStillServedStale() {
+        AtomicLong now = new AtomicLong();
+        TtlLruCache<String, String> cache = new TtlLruCache<>(10, now::get);
+        cache.put("a", "1", 100);
+
+        now.set(500);
+        assertNull(cache.get("a"));
+        assertNull(cache.get("a"));
+        assertEquals("1", cache.getStale("a"));
+        assertNull(cache.getStale("b"));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void testWarmHitsCountedUntilEntryIsReplaced() {
+        AtomicLong now = new AtomicLong();
+        TtlLruCache<String, String> cache = new TtlLruCache<>(10, now::get);
+        cache.put("a", "1", 100);
+        cache.markWarm("a");
+        cache.markWarm("b");
+
+        assertEquals("1", cache.get("a"));
+        cache.put("a", "2", 100);
+        assertEquals("2", cache.get("a"));
+
+        assertEquals(1, cache.warmHits());
+        assertEquals(2, cache.stats().getHits());
+    }
+}
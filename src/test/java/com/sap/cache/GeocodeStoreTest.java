@@ -0,0 +1,73 @@
+package com.sap.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeocodeStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSurvivesRestart() {
+        GeocodeStore first = new GeocodeStore(true, dir.toString(), 100);
+        first.put("Hamburg", new double[]{9.99, 53.55});
+
+        GeocodeStore second = new GeocodeStore(true, dir.toString(), 100);
+        double[] coords = second.get("HAMBURG");
+
+        assertNotNull(coords);
+        assertEquals(9.99, coords[0]);
+        assertEquals(53.55, coords[1]);
+    }
+
+    @Test
+    void testSeesRecordsAppendedByOtherStore() {
+        GeocodeStore reader = new GeocodeStore(true, dir.toString(), 100);
+        assertNull(reader.get("Berlin"));
+
+        new GeocodeStore(true, dir.toString(), 100).put("Berlin", new double[]{13.4, 52.5});
+
+        assertNotNull(reader.get("Berlin"));
+    }
+
+    @Test
+    void testCompaction() throws Exception {
+        GeocodeStore store = new GeocodeStore(true, dir.toString(), 4);
+        for (int i = 0; i < 10; i++) {
+            store.put("Munich", new double[]{11.5, 48.1 + i});
+        }
+
+        long lines = Files.readAllLines(dir.resolve("geocode.log")).size();
+        assertTrue(lines <= 4, "expected compacted log but found " + lines + " records");
+        assertEquals(57.1, new GeocodeStore(true, dir.toString(), 4).get("munich")[1], 1e-9);
+    }
+
+    @Test
+    void testRereadsLogTruncatedByOtherProcess() throws Exception {
+        GeocodeStore reader = new GeocodeStore(true, dir.toString(), 100);
+        GeocodeStore writer = new GeocodeStore(true, dir.toString(), 100);
+        for (int i = 0; i < 20; i++) {
+            writer.put("City " + i, new double[]{i, i});
+        }
+        assertEquals(20, reader.size());
+
+        Files.writeString(dir.resolve("geocode.log"), "dresden\t13.7\t51.05\n");
+
+        assertDoesNotThrow(() -> reader.get("Dresden"));
+        assertEquals(51.05, reader.get("Dresden")[1], 1e-9);
+    }
+
+    @Test
+    void testDisabledStore() {
+        GeocodeStore store = GeocodeStore.disabled();
+        store.put("Berlin", new double[]{13.4, 52.5});
+
+        assertNull(store.get("Berlin"));
+    }
+}
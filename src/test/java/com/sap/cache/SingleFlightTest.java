@@ -0,0 +1,90 @@
+package com.sap.cache;
+
+import com.sap.exception.NetworkException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger coalesced = new AtomicInteger();
+        SingleFlight<String, String> flight = new SingleFlight<>(coalesced::incrementAndGet);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(flight, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "53.55";
+        }, coalesced, release);
+
+        for (Future<String> result : results) {
+            assertEquals("53.55", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void testFailureReachesEveryWaiterAndIsNotKept() throws Exception {
+        AtomicInteger coalesced = new AtomicInteger();
+        SingleFlight<String, String> flight = new SingleFlight<>(coalesced::incrementAndGet);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(flight, () -> {
+            await(release);
+            throw new NetworkException("Connection refused", null);
+        }, coalesced, release);
+
+        for (Future<String> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(NetworkException.class, e.getCause());
+            assertEquals("Connection refused", e.getCause().getMessage());
+        }
+        assertEquals("ok", flight.execute("hamburg", () -> "ok"));
+    }
+
+    /**
+     * Starts {@code CALLERS} lookups of the same key and releases the loader once all but the
+     * loading caller have joined it.
+     */
+    private static List<Future<String>> runConcurrently(SingleFlight<String, String> flight, Supplier<String> loader,
+                                                        AtomicInteger coalesced, CountDownLatch release) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flight.execute("hamburg", loader)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced.get() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(CALLERS - 1, coalesced.get());
+        release.countDown();
+        executor.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
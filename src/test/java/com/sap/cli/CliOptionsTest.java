@@ -0,0 +1,46 @@
+package com.sap.cli;
+
+import com.sap.model.dto.ItineraryRequestDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CliOptionsTest {
+
+    @Test
+    void testModifiersAloneAreNoTask() {
+        assertFalse(CliOptions.hasTask(CliOptions.parse(new String[]{"--warm-up", "history.csv", "--metrics"})));
+        assertTrue(CliOptions.hasTask(CliOptions.parse(new String[]{"--warm-up", "history.csv", "--input", "trips.csv"})));
+        assertTrue(CliOptions.hasTask(CliOptions.parse(new String[]{"--metrics", "--start", "Berlin"})));
+    }
+
+    @Test
+    void testRepeatedViaBuildsStopsInOrder() {
+        String[] args = {"--start", "Berlin", "--via", "Hamburg", "--transportation-method", "bus-default",
+                "--via", "Frankfurt am Main", "--end", "Munich"};
+        Map<String, String> options = CliOptions.parse(args);
+
+        ItineraryRequestDTO itinerary = CliOptions.toItinerary(args, options);
+
+        assertTrue(CliOptions.isItinerary(options));
+        assertEquals(List.of("Berlin", "Hamburg", "Frankfurt am Main", "Munich"), itinerary.getStops());
+        assertEquals(List.of("bus-default"), itinerary.getTransportationMethods());
+    }
+
+    @Test
+    void testCommaSeparatedMethodsArePerLeg() {
+        String[] args = {"--start", "Berlin", "--end", "Hamburg", "--transportation-method", "train-default, bus-default"};
+        Map<String, String> options = CliOptions.parse(args);
+
+        ItineraryRequestDTO itinerary = CliOptions.toItinerary(args, options);
+
+        assertTrue(CliOptions.isItinerary(options));
+        assertEquals(List.of("train-default", "bus-default"), itinerary.getTransportationMethods());
+        assertFalse(CliOptions.isItinerary(CliOptions.parse(new String[]{"--start", "Berlin", "--end", "Hamburg",
+                "--transportation-method", "bus-default"})));
+        assertEquals(List.of(), CliOptions.values(new String[]{"--via", "--end", "Hamburg"}, "via"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.sap.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.exception.CityNotFoundException;
+import com.sap.service.Co2CalculatorService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripReplTest {
+
+    @Mock
+    private Co2CalculatorService co2Service;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testAnswersEachLineUntilQuit() throws Exception {
+        when(co2Service.getDistanceKm("Frankfurt am Main", "Hamburg")).thenReturn(493.0);
+        when(co2Service.calculateCo2Kg(493.0, "diesel-car-medium")).thenReturn(84.3);
+        when(co2Service.getDistanceKm("Berlin", "Atlantis")).thenThrow(new CityNotFoundException("City not found: Atlantis"));
+
+        String input = """
+                --start "Frankfurt am Main" --end Hamburg --transportation-method diesel-car-medium
+
+                {"start":"Berlin","end":"Atlantis","transportationMethod":"bus-default"}
+                {"start":"Berlin","end":"","transportationMethod":"bus-default"}
+                quit
+                --start Berlin --end Hamburg --transportation-method bus-default
+                """;
+
+        StringWriter out = new StringWriter();
+        TripRepl repl = new TripRepl(co2Service, Validation.buildDefaultValidatorFactory().getValidator(), mapper);
+        long requests = repl.run(new BufferedReader(new StringReader(input)), new PrintWriter(out));
+
+        List<JsonNode> responses = out.toString().lines().map(this::readTree).toList();
+
+        assertEquals(3, requests);
+        assertEquals(84.3, responses.get(0).get("co2Kg").asDouble());
+        assertEquals("City not found: Atlantis", responses.get(1).get("error").asText());
+        assertEquals("End city cannot be blank", responses.get(2).get("error").asText());
+        verify(co2Service, never()).getDistanceKm("Berlin", "Hamburg");
+    }
+
+    @Test
+    void testTokenizeKeepsQuotedSections() {
+        assertArrayEquals(new String[]{"--start", "Frankfurt am Main", "--end", "Halle"},
+                CliOptions.tokenize("--start 'Frankfurt am Main'  --end \"Halle\""));
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return mapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
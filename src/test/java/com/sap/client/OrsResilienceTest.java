@@ -0,0 +1,120 @@
+package com.sap.client;
+
+import com.sap.exception.CircuitOpenException;
+import com.sap.exception.CityNotFoundException;
+import com.sap.exception.InternalServerErrorException;
+import com.sap.exception.NetworkException;
+import com.sap.metrics.Co2Metrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrsResilienceTest {
+
+    @Test
+    void testRetriesTransientFailures() {
+        OrsResilience resilience = resilience(3, false, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = resilience.call(OrsEndpoint.GEOCODE, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new NetworkException("connection reset", null);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttemptsAndSkipsPermanentFailures() {
+        OrsResilience resilience = resilience(2, false, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(InternalServerErrorException.class, () -> resilience.call(OrsEndpoint.MATRIX, () -> {
+            attempts.incrementAndGet();
+            throw new InternalServerErrorException("boom");
+        }));
+        assertEquals(2, attempts.get());
+
+        assertThrows(CityNotFoundException.class, () -> resilience.call(OrsEndpoint.GEOCODE, () -> {
+            attempts.incrementAndGet();
+            throw new CityNotFoundException("City not found: Atlantis");
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testOpenCircuitFailsFastPerEndpoint() {
+        OrsResilience resilience = resilience(1, false, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(NetworkException.class, () -> resilience.call(OrsEndpoint.MATRIX, () -> {
+                attempts.incrementAndGet();
+                throw new NetworkException("timeout", null);
+            }));
+        }
+
+        assertThrows(CircuitOpenException.class, () -> resilience.call(OrsEndpoint.MATRIX, attempts::incrementAndGet));
+        assertEquals(2, attempts.get());
+        assertEquals("ok", resilience.call(OrsEndpoint.GEOCODE, () -> "ok"));
+    }
+
+    @Test
+    void testAsyncCallRetriesAndCancelsTheAttemptInFlight() {
+        OrsResilience resilience = resilience(3, false, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> retried = resilience.callAsync(OrsEndpoint.GEOCODE, () -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new NetworkException("connection reset", null))
+                : CompletableFuture.completedFuture("ok"));
+        assertEquals("ok", retried.join());
+        assertEquals(3, attempts.get());
+
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> call = resilience.callAsync(OrsEndpoint.MATRIX, () -> pending);
+        call.cancel(true);
+        assertTrue(pending.isCancelled());
+        assertEquals("ok", resilience.callAsync(OrsEndpoint.MATRIX, () -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void testHedgedRequestWinsOverSlowPrimary() throws Exception {
+        OrsResilience resilience = resilience(1, true, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            String result = resilience.call(OrsEndpoint.GEOCODE, () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "slow";
+                }
+                return "hedge";
+            });
+
+            assertEquals("hedge", result);
+            assertEquals(2, attempts.get());
+        } finally {
+            release.countDown();
+            resilience.shutdown();
+        }
+    }
+
+    private static OrsResilience resilience(int maxAttempts, boolean hedge, int failureThreshold) {
+        return new OrsResilience(maxAttempts, 1, 5, hedge, 20, failureThreshold, 60_000, true,
+                Co2Metrics.standalone(), new StaticMessageSource());
+    }
+}
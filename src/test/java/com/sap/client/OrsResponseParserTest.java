@@ -0,0 +1,78 @@
+package com.sap.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrsResponseParserTest {
+
+    private final JsonFactory factory = new JsonFactory();
+
+    @Test
+    void testFirstFeatureCoordinatesSkipsOtherFields() throws IOException {
+        String body = """
+                {
+                  "geocoding": {"query": {"text": "Berlin", "size": 10}},
+                  "type": "FeatureCollection",
+                  "features": [
+                    {"type": "Feature", "properties": {"name": "Berlin", "addendum": {"osm": {"wikidata": "Q64"}}},
+                     "geometry": {"type": "Point", "coordinates": [13.4, 52.5, 34.0]}},
+                    {"geometry": {"coordinates": [0, 0]}}
+                  ]
+                }
+                """;
+
+        double[] coords = OrsResponseParser.readFirstFeatureCoordinates(parser(body));
+
+        assertArrayEquals(new double[]{13.4, 52.5}, coords);
+    }
+
+    @Test
+    void testNoFeatures() throws IOException {
+        assertNull(OrsResponseParser.readFirstFeatureCoordinates(parser("{\"features\":[]}")));
+        assertNull(OrsResponseParser.readFirstFeatureCoordinates(parser("{\"type\":\"FeatureCollection\"}")));
+    }
+
+    @Test
+    void testMalformedCoordinates() throws IOException {
+        double[] coords = OrsResponseParser.readFirstFeatureCoordinates(
+                parser("{\"features\":[{\"geometry\":{\"coordinates\":[13.4]}}]}"));
+
+        assertEquals(0, coords.length);
+    }
+
+    @Test
+    void testReadDistancesBlock() throws IOException {
+        String body = """
+                {"metadata": {"engine": {"version": "9"}}, "distances": [[0, 36000.5, 12], [36000.5, 0, null]]}
+                """;
+
+        double[][] distances = OrsResponseParser.readDistances(parser(body), 2, 2);
+
+        assertArrayEquals(new double[]{0, 36000.5}, distances[0]);
+        assertArrayEquals(new double[]{36000.5, 0}, distances[1]);
+    }
+
+    @Test
+    void testReadDistancesNullRouteIsZero() throws IOException {
+        double[][] distances = OrsResponseParser.readDistances(parser("{\"distances\": [[0, null], [null, 0]]}"), 1, 2);
+
+        assertEquals(0.0, distances[0][1]);
+    }
+
+    @Test
+    void testReadDistancesTooSmall() throws IOException {
+        assertNull(OrsResponseParser.readDistances(parser("{\"distances\": []}"), 1, 2));
+        assertNull(OrsResponseParser.readDistances(parser("{\"distances\": [[0]]}"), 1, 2));
+    }
+
+    private JsonParser parser(String body) throws IOException {
+        JsonParser parser = factory.createParser(body);
+        parser.nextToken();
+        return parser;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sap.client;
+
+import com.sap.exception.CityNotFoundException;
+import com.sap.exception.InternalServerErrorException;
+import com.sap.exception.TooManyRequestsException;
+import com.sap.metrics.Co2Metrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrsThrottleTest {
+
+    @Test
+    void testRetriesAfterRetryAfterOnTooManyRequests() {
+        OrsThrottle throttle = throttle(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        String result = throttle.call(OrsEndpoint.GEOCODE, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new TooManyRequestsException("slow down", 50);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+    }
+
+    @Test
+    void testAsyncCallRetriesAfterRetryAfterWithoutBlocking() {
+        OrsThrottle throttle = throttle(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<String> result = throttle.callAsync(OrsEndpoint.GEOCODE, () -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new TooManyRequestsException("slow down", 50))
+                : CompletableFuture.completedFuture("ok"));
+
+        assertTrue(System.nanoTime() - start < 50_000_000L, "the back-off is scheduled, not slept");
+        assertEquals("ok", result.join());
+        assertEquals(3, attempts.get());
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+    }
+
+    @Test
+    void testGivesUpAfterMaxRetries() {
+        OrsThrottle throttle = throttle(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.call(OrsEndpoint.MATRIX, () -> {
+            attempts.incrementAndGet();
+            throw new TooManyRequestsException("slow down", 1);
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testOtherFailuresAreNotRetried() {
+        OrsThrottle throttle = throttle(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(CityNotFoundException.class, () -> throttle.call(OrsEndpoint.GEOCODE, () -> {
+            attempts.incrementAndGet();
+            throw new CityNotFoundException("City not found: Atlantis");
+        }));
+        assertThrows(InternalServerErrorException.class, () -> throttle.call(OrsEndpoint.GEOCODE, () -> {
+            attempts.incrementAndGet();
+            throw new InternalServerErrorException("boom");
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testConcurrencyLimitBacksOffAndRecovers() throws Exception {
+        AtomicLong now = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 8, now::get);
+
+        assertTrue(limit.acquire(0));
+        limit.release(AdaptiveConcurrencyLimit.Outcome.THROTTLED, 1_000);
+        assertEquals(4, limit.getLimit());
+        assertFalse(limit.acquire(500), "paused until Retry-After has passed");
+
+        now.set(1_000);
+        assertTrue(limit.acquire(1_000));
+        limit.release(AdaptiveConcurrencyLimit.Outcome.OVERLOADED, 0);
+        assertEquals(3, limit.getLimit());
+
+        for (int i = 0; i < 40; i++) {
+            assertTrue(limit.acquire(now.get()));
+            limit.release(AdaptiveConcurrencyLimit.Outcome.SUCCESS, 0);
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    private static OrsThrottle throttle(int maxRetries) {
+        return new OrsThrottle(0, 0, 1, 1, 4, 5000, maxRetries, 10, Co2Metrics.standalone(), new StaticMessageSource());
+    }
+}
@@ -0,0 +1,45 @@
+package com.sap.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testBurstThenSteadyRate() {
+        TokenBucket bucket = new TokenBucket(60, 2, now::get);
+        long maxWait = TimeUnit.MINUTES.toNanos(1);
+
+        assertEquals(0, bucket.reserve(maxWait));
+        assertEquals(0, bucket.reserve(maxWait));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.reserve(maxWait));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), bucket.reserve(maxWait));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, bucket.reserve(maxWait));
+    }
+
+    @Test
+    void testRefusesReservationBeyondMaxWait() {
+        TokenBucket bucket = new TokenBucket(60, 1, now::get);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(-1, bucket.reserve(TimeUnit.MILLISECONDS.toNanos(500)));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.reserve(TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void testUnlimitedRate() {
+        TokenBucket bucket = new TokenBucket(0, 1, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, bucket.reserve(0));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sap.config;
+
+import com.sap.model.EmissionTable;
+import com.sap.model.TransportMethod;
+import com.sap.utility.AppConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmissionFactorLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void restoreBuiltIn() {
+        TransportMethod.install(EmissionTable.builtIn());
+    }
+
+    @Test
+    void testLoadsAndHotSwapsFactors() throws Exception {
+        Path file = dir.resolve("emission-factors.properties");
+        Files.writeString(file, "bus-default = 30\ncargo-bike = 1\n");
+        EmissionFactorLoader loader = new EmissionFactorLoader(file.toString(), 0);
+
+        loader.start();
+        assertEquals(30, TransportMethod.getEmissionRate(AppConstants.BUS_DEFAULT));
+        assertEquals(1, TransportMethod.getEmissionRate("cargo-bike"));
+        assertFalse(loader.reload());
+
+        Files.writeString(file, "bus-default = 25\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertTrue(loader.reload());
+        assertEquals(25, TransportMethod.getEmissionRate(AppConstants.BUS_DEFAULT));
+        assertEquals(1, TransportMethod.getEmissionRate("cargo-bike"));
+    }
+
+    @Test
+    void testReloadsKeepResolvedOrdinals() throws Exception {
+        Path file = dir.resolve("emission-factors.properties");
+        Files.writeString(file, "tram = 20\n");
+        EmissionFactorLoader loader = new EmissionFactorLoader(file.toString(), 0);
+        assertTrue(loader.reload());
+        int tram = TransportMethod.ordinal("tram");
+        int bus = TransportMethod.ordinal(AppConstants.BUS_DEFAULT);
+
+        Files.writeString(file, "ferry = 120\ntram = 22\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertTrue(loader.reload());
+        Files.writeString(file, "bus-default = 25\nairship = 60\nferry = 110\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        assertTrue(loader.reload());
+
+        EmissionTable table = TransportMethod.table();
+        assertEquals(tram, table.ordinal("tram"));
+        assertEquals(22, table.rate(tram));
+        assertEquals(bus, table.ordinal(AppConstants.BUS_DEFAULT));
+        assertEquals(25, table.rate(bus));
+        assertEquals(tram + 1, table.ordinal("ferry"));
+        assertEquals(tram + 2, table.ordinal("airship"));
+    }
+
+    @Test
+    void testDroppedOverrideRevertsToBuiltInRate() throws Exception {
+        Path file = dir.resolve("emission-factors.properties");
+        Files.writeString(file, "bus-default = 30\n");
+        EmissionFactorLoader loader = new EmissionFactorLoader(file.toString(), 0);
+        assertTrue(loader.reload());
+
+        Files.writeString(file, "train-default = 5\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertTrue(loader.reload());
+
+        assertEquals(27, TransportMethod.getEmissionRate(AppConstants.BUS_DEFAULT));
+        assertEquals(5, TransportMethod.getEmissionRate(AppConstants.TRAIN_DEFAULT));
+    }
+
+    @Test
+    void testInvalidFileKeepsCurrentFactors() throws Exception {
+        Path file = dir.resolve("emission-factors.properties");
+        Files.writeString(file, "bus-default = 30\ntrain-default = lots\n");
+
+        assertFalse(new EmissionFactorLoader(file.toString(), 0).reload());
+        assertEquals(27, TransportMethod.getEmissionRate(AppConstants.BUS_DEFAULT));
+    }
+}
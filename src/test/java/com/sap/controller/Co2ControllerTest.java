@@ -0,0 +1,200 @@
+package com.sap.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.batch.TripBatchProcessor;
+import com.sap.cache.DistanceCache;
+import com.sap.exception.CityNotFoundException;
+import com.sap.exception.GlobalExceptionHandler;
+import com.sap.exception.NetworkException;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.model.dto.ItineraryResponseDTO;
+import com.sap.service.AsyncCo2CalculatorService;
+import com.sap.service.Co2CalculatorService;
+import com.sap.service.DistanceEstimator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class Co2ControllerTest {
+
+    @Mock
+    private Co2CalculatorService co2Service;
+
+    @Mock
+    private AsyncCo2CalculatorService asyncCo2Service;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        TripBatchProcessor batchProcessor = new TripBatchProcessor(co2Service, new DistanceCache(100, 60, true), DistanceEstimator.disabled(),
+                Validation.buildDefaultValidatorFactory().getValidator(), mapper, Executors.newFixedThreadPool(2), 100);
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new Co2Controller(co2Service, asyncCo2Service, batchProcessor, new StaticMessageSource(), 2))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testCalculate() throws Exception {
+        when(co2Service.getDistanceKm("Berlin", "Hamburg")).thenReturn(289.0);
+        when(co2Service.calculateCo2Kg(289.0, "train-default")).thenReturn(1.7);
+
+        mockMvc.perform(post("/api/co2/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"Berlin\",\"end\":\"Hamburg\",\"transportationMethod\":\"train-default\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.distanceKm").value(289.0))
+                .andExpect(jsonPath("$.co2Kg").value(1.7));
+    }
+
+    @Test
+    void testCalculateRejectsInvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/co2/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"Berlin\",\"transportationMethod\":\"train-default\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("End city cannot be blank"));
+
+        verifyNoInteractions(co2Service);
+    }
+
+    @Test
+    void testCalculateMapsApiException() throws Exception {
+        when(co2Service.getDistanceKm("Berlin", "Atlantis")).thenThrow(new CityNotFoundException("City not found: Atlantis"));
+
+        mockMvc.perform(post("/api/co2/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"Berlin\",\"end\":\"Atlantis\",\"transportationMethod\":\"train-default\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("City not found: Atlantis"));
+    }
+
+    @Test
+    void testCalculateItinerary() throws Exception {
+        when(co2Service.calculateItinerary(List.of("Berlin", "Hamburg", "Munich"), List.of("train-default", "bus-default")))
+                .thenReturn(new ItineraryResponseDTO(List.of(
+                        new Co2CalculateResponseDTO("Berlin", "Hamburg", "train-default", 289.0, 1.7),
+                        new Co2CalculateResponseDTO("Hamburg", "Munich", "bus-default", 777.0, 21.0)), 1066.0, 22.7));
+
+        mockMvc.perform(post("/api/co2/itinerary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stops\":[\"Berlin\",\"Hamburg\",\"Munich\"],\"transportationMethods\":[\"train-default\",\"bus-default\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.legs[1].end").value("Munich"))
+                .andExpect(jsonPath("$.distanceKm").value(1066.0))
+                .andExpect(jsonPath("$.co2Kg").value(22.7));
+    }
+
+    @Test
+    void testCalculateItineraryRejectsInvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/co2/itinerary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stops\":[\"Berlin\"],\"transportationMethods\":[\"train-default\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("An itinerary needs at least two stops"));
+
+        mockMvc.perform(post("/api/co2/itinerary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stops\":[\"Berlin\",\"Hamburg\"],\"transportationMethods\":[\"rocket\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Invalid transportation method")));
+
+        verifyNoInteractions(co2Service);
+    }
+
+    @Test
+    void testCalculateAsync() throws Exception {
+        when(asyncCo2Service.calculateAsync("Berlin", "Hamburg", "train-default")).thenReturn(
+                CompletableFuture.completedFuture(new Co2CalculateResponseDTO("Berlin", "Hamburg", "train-default", 289.0, 1.7)));
+
+        MvcResult started = mockMvc.perform(post("/api/co2/calculate/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"Berlin\",\"end\":\"Hamburg\",\"transportationMethod\":\"train-default\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.distanceKm").value(289.0))
+                .andExpect(jsonPath("$.co2Kg").value(1.7));
+    }
+
+    @Test
+    void testCalculateAsyncMapsApiException() throws Exception {
+        when(asyncCo2Service.calculateAsync("Berlin", "Hamburg", "train-default")).thenReturn(
+                CompletableFuture.failedFuture(new NetworkException("Timed out", null)));
+
+        MvcResult started = mockMvc.perform(post("/api/co2/calculate/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"Berlin\",\"end\":\"Hamburg\",\"transportationMethod\":\"train-default\"}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Timed out"));
+    }
+
+    @Test
+    void testBulkReportsErrorsPerTrip() throws Exception {
+        when(co2Service.getCoordinates("Berlin")).thenReturn(new double[]{13.4, 52.5});
+        when(co2Service.getCoordinates("Hamburg")).thenReturn(new double[]{9.99, 53.55});
+        when(co2Service.getDistanceMatrixKm(anyList(), anyList(), any(boolean[][].class))).thenReturn(new double[][]{{289.0}});
+        when(co2Service.calculateCo2Kg(289.0, "train-default")).thenReturn(1.7);
+
+        mockMvc.perform(post("/api/co2/calculate/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"start":"Berlin","end":"Hamburg","transportationMethod":"train-default"},
+                                 {"start":"Berlin","end":"Hamburg","transportationMethod":"rocket"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].co2Kg").value(1.7))
+                .andExpect(jsonPath("$[1].line").value(2))
+                .andExpect(jsonPath("$[1].error").exists());
+    }
+
+    @Test
+    void testBulkReportsNullTripPerTrip() throws Exception {
+        mockMvc.perform(post("/api/co2/calculate/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null, {\"start\":\"Berlin\",\"end\":\"Hamburg\",\"transportationMethod\":\"rocket\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].line").value(1))
+                .andExpect(jsonPath("$[0].error").value("Trip must not be null"))
+                .andExpect(jsonPath("$[1].error").exists());
+    }
+
+    @Test
+    void testBulkRejectsOversizedRequest() throws Exception {
+        mockMvc.perform(post("/api/co2/calculate/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{},{},{}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Too many trips in one request: 3 (max 2)"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.sap.load;
+
+import com.sap.model.dto.Co2CalculateRequestDTO;
+import com.sap.service.Co2CalculatorService;
+import com.sap.utility.AppConstants;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: {@code concurrency} threads each run one trip at a time
+ * (distance plus CO2) back to back until the run ends, recording every latency and
+ * every failure by exception type.
+ * <p>
+ * Standalone run against a local stub:
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.sap.load.LoadDriver
+ * -Dload.concurrency=64 -Dload.latencyMs=20 -Dload.durationSeconds=30}
+ */
+public class LoadDriver {
+
+    private final Co2CalculatorService service;
+    private final List<Co2CalculateRequestDTO> trips;
+    private final int concurrency;
+
+    public LoadDriver(Co2CalculatorService service, List<Co2CalculateRequestDTO> trips, int concurrency) {
+        this.service = service;
+        this.trips = trips;
+        this.concurrency = concurrency;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 32);
+        int cities = Integer.getInteger("load.cities", 500);
+
+        try (OrsStubServer stub = new OrsStubServer(Long.getLong("load.latencyMs", 20),
+                Double.parseDouble(System.getProperty("load.errorRate", "0")),
+                Integer.getInteger("load.extraFeatures", 0), Integer.getInteger("load.stubThreads", 64));
+             LoadStack stack = new LoadStack(stub, Integer.getInteger("load.cacheSize", 0), concurrency * 2)) {
+
+            LoadDriver driver = new LoadDriver(stack.service(), trips(cities, cities * 4), concurrency);
+            driver.run(Duration.ofSeconds(Long.getLong("load.warmupSeconds", 5)));
+            LoadReport report = driver.run(Duration.ofSeconds(Long.getLong("load.durationSeconds", 30)));
+
+            System.out.println(report);
+            System.out.printf("Stub served %d geocode and %d matrix requests, %d injected errors%n",
+                    stub.geocodeRequests(), stub.matrixRequests(), stub.injectedErrors());
+            System.out.print(stack.metrics().summary());
+        }
+    }
+
+    public static List<Co2CalculateRequestDTO> trips(int cities, int count) {
+        List<Co2CalculateRequestDTO> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Co2CalculateRequestDTO trip = new Co2CalculateRequestDTO();
+            trip.setStart("City " + (i % cities));
+            trip.setEnd("City " + ((i * 7 + 1) % cities));
+            trip.setTransportationMethod(AppConstants.DIESEL_CAR_MEDIUM);
+            trips.add(trip);
+        }
+        return trips;
+    }
+
+    public LoadReport run(Duration duration) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        long[][] latencies = new long[concurrency][];
+        int[] counts = new int[concurrency];
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            int worker = w;
+            latencies[worker] = new long[1024];
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() - deadline < 0) {
+                    Co2CalculateRequestDTO trip = trips.get((int) (next.getAndIncrement() % trips.size()));
+                    long begin = System.nanoTime();
+                    try {
+                        double distanceKm = service.getDistanceKm(trip.getStart(), trip.getEnd());
+                        service.calculateCo2Kg(distanceKm, trip.getTransportationMethod());
+                    } catch (Exception e) {
+                        errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                    }
+                    if (counts[worker] == latencies[worker].length) {
+                        latencies[worker] = Arrays.copyOf(latencies[worker], counts[worker] * 2);
+                    }
+                    latencies[worker][counts[worker]++] = System.nanoTime() - begin;
+                }
+            }, "load-" + w);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int w = 0; w < concurrency; w++) {
+            System.arraycopy(latencies[w], 0, all, offset, counts[w]);
+            offset += counts[w];
+        }
+        Arrays.sort(all);
+
+        Map<String, Long> errorsByType = new ConcurrentHashMap<>();
+        errors.forEach((type, count) -> errorsByType.put(type, count.sum()));
+        long errorCount = errorsByType.values().stream().mapToLong(Long::longValue).sum();
+
+        return new LoadReport(total, errorCount, errorsByType, elapsedSeconds,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99), total == 0 ? 0 : all[total - 1] / 1e6);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
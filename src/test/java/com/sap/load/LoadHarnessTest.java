@@ -0,0 +1,44 @@
+package com.sap.load;
+
+import com.sap.exception.InternalServerErrorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Short offline runs of the real service stack against the local ORS stub. Scale up with
+ * {@link LoadDriver#main} for actual measurements.
+ */
+class LoadHarnessTest {
+
+    @Test
+    void testLoadAgainstStubWithoutErrors() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(2, 0, 5, 16);
+             LoadStack stack = new LoadStack(stub, 0, 16)) {
+
+            LoadReport report = new LoadDriver(stack.service(), LoadDriver.trips(50, 200), 8).run(Duration.ofSeconds(1));
+
+            assertTrue(report.requests() > 0, report::toString);
+            assertEquals(0, report.errors(), report::toString);
+            assertTrue(report.p50Millis() >= 2, report::toString);
+            assertTrue(report.p99Millis() >= report.p50Millis(), report::toString);
+            // Caches are off, so only identical lookups in flight at the same time are coalesced.
+            assertTrue(stub.geocodeRequests() > 0 && stub.geocodeRequests() <= report.requests() * 2 + 16, report::toString);
+            assertTrue(stub.matrixRequests() > 0 && stub.matrixRequests() <= report.requests() + 8, report::toString);
+        }
+    }
+
+    @Test
+    void testInjectedErrorsAreCountedByType() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(0, 0.5, 0, 8);
+             LoadStack stack = new LoadStack(stub, 0, 8)) {
+
+            LoadReport report = new LoadDriver(stack.service(), LoadDriver.trips(20, 100), 4).run(Duration.ofMillis(500));
+
+            assertTrue(report.errors() > 0, report::toString);
+            assertTrue(report.errorsByType().containsKey(InternalServerErrorException.class.getSimpleName()), report::toString);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.sap.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public record LoadReport(long requests, long errors, Map<String, Long> errorsByType, double elapsedSeconds,
+                         double p50Millis, double p99Millis, double maxMillis) {
+
+    public double throughput() {
+        return elapsedSeconds > 0 ? requests / elapsedSeconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests in %.1f s: %.1f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d errors %s",
+                requests, elapsedSeconds, throughput(), p50Millis, p99Millis, maxMillis, errors, new TreeMap<>(errorsByType));
+    }
+}
@@ -0,0 +1,55 @@
+package com.sap.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.client.OrsResilience;
+import com.sap.client.OrsThrottle;
+import com.sap.config.AppConfig;
+import com.sap.metrics.Co2Metrics;
+import com.sap.service.DistanceEstimator;
+import com.sap.service.impl.Co2CalculatorServiceImpl;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The production service wiring from {@link AppConfig}: pooled HTTP client, RestTemplate,
+ * geocode executor, message source and caches, pointed at an {@link OrsStubServer}.
+ * A {@code cacheSize} of 0 disables the geocode and distance caches so every trip goes over the wire.
+ */
+public class LoadStack implements AutoCloseable {
+
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService geocodeExecutor;
+    private final Co2CalculatorServiceImpl service;
+    private final Co2Metrics metrics = Co2Metrics.standalone();
+
+    public LoadStack(OrsStubServer stub, int cacheSize, int maxConnections) {
+        AppConfig config = new AppConfig();
+        this.httpClient = config.httpClient(maxConnections, maxConnections, 5000, 15000, 5000, 30);
+        this.geocodeExecutor = config.geocodeExecutor(maxConnections);
+        this.service = new Co2CalculatorServiceImpl(config.restTemplate(httpClient), new ObjectMapper(), "token",
+                stub.geocodeUrl(), stub.matrixUrl(), config.messageSource(),
+                new GeocodeCache(cacheSize, 1440, 60), GeocodeStore.disabled(), new DistanceCache(cacheSize, 1440, true),
+                50, 3500, geocodeExecutor, 15000, metrics, OrsThrottle.unlimited(), OrsResilience.disabled(),
+                Gazetteer.disabled(), DistanceEstimator.disabled());
+    }
+
+    public Co2CalculatorServiceImpl service() {
+        return service;
+    }
+
+    public Co2Metrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        geocodeExecutor.shutdownNow();
+        httpClient.close();
+    }
+}
@@ -0,0 +1,207 @@
+package com.sap.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sap.utility.NamedThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP stand-in for the OpenRouteService geocode and matrix endpoints, served over real
+ * sockets so load tests pay for connection handling, serialization and latency like production.
+ * Every city geocodes to stable coordinates derived from its name; matrix responses match the
+ * requested size. Latency, error rate and geocode response size are configurable.
+ */
+public class OrsStubServer implements AutoCloseable {
+
+    public static final String GEOCODE_PATH = "/geocode/search";
+    public static final String MATRIX_PATH = "/v2/matrix/driving-car";
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, every response
+        // stalls on the client's delayed ACK (~40 ms) and the stub would dominate the latency.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final long latencyMs;
+    private final double errorRate;
+    private final int extraFeatures;
+
+    private final AtomicLong geocodeRequests = new AtomicLong();
+    private final AtomicLong matrixRequests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    /**
+     * @param latencyMs     delay added to every response
+     * @param errorRate     fraction of requests, 0..1, answered with 503
+     * @param extraFeatures additional geocode candidates per response, to grow the payload
+     * @param threads       server worker threads
+     */
+    public OrsStubServer(long latencyMs, double errorRate, int extraFeatures, int threads) throws IOException {
+        this.latencyMs = latencyMs;
+        this.errorRate = errorRate;
+        this.extraFeatures = extraFeatures;
+        this.executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("ors-stub"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.createContext(GEOCODE_PATH, this::handleGeocode);
+        this.server.createContext(MATRIX_PATH, this::handleMatrix);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String geocodeUrl() {
+        return baseUrl() + GEOCODE_PATH;
+    }
+
+    public String matrixUrl() {
+        return baseUrl() + MATRIX_PATH;
+    }
+
+    public long geocodeRequests() {
+        return geocodeRequests.get();
+    }
+
+    public long matrixRequests() {
+        return matrixRequests.get();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handleGeocode(HttpExchange exchange) throws IOException {
+        geocodeRequests.incrementAndGet();
+        drain(exchange);
+        if (delayOrFail(exchange)) {
+            return;
+        }
+
+        String city = queryParam(exchange.getRequestURI().getRawQuery(), "text");
+        double[] coordinates = coordinatesOf(city);
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        appendFeature(json, city, coordinates);
+        for (int i = 0; i < extraFeatures; i++) {
+            json.append(',');
+            appendFeature(json, city + " " + i, coordinatesOf(city + i));
+        }
+        json.append("]}");
+        respond(exchange, 200, json.toString());
+    }
+
+    private void handleMatrix(HttpExchange exchange) throws IOException {
+        matrixRequests.incrementAndGet();
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = mapper.readTree(body);
+        }
+        if (delayOrFail(exchange)) {
+            return;
+        }
+
+        JsonNode locations = request.path("locations");
+        JsonNode sources = request.path("sources");
+        JsonNode destinations = request.path("destinations");
+        int rows = sources.isArray() ? sources.size() : locations.size();
+        int cols = destinations.isArray() ? destinations.size() : locations.size();
+
+        StringBuilder json = new StringBuilder("{\"distances\":[");
+        for (int i = 0; i < rows; i++) {
+            JsonNode from = locations.path(sources.isArray() ? sources.get(i).asInt() : i);
+            json.append(i == 0 ? "[" : ",[");
+            for (int j = 0; j < cols; j++) {
+                JsonNode to = locations.path(destinations.isArray() ? destinations.get(j).asInt() : j);
+                json.append(j == 0 ? "" : ",").append(roadMetres(from, to));
+            }
+            json.append(']');
+        }
+        json.append("],\"metadata\":{\"service\":\"matrix\"}}");
+        respond(exchange, 200, json.toString());
+    }
+
+    private boolean delayOrFail(HttpExchange exchange) throws IOException {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            respond(exchange, 503, "{\"error\":\"Service temporarily unavailable\"}");
+            return true;
+        }
+        return false;
+    }
+
+    private static void appendFeature(StringBuilder json, String name, double[] coordinates) {
+        json.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[")
+                .append(coordinates[0]).append(',').append(coordinates[1])
+                .append("]},\"properties\":{\"name\":\"").append(name.replace("\"", ""))
+                .append("\",\"layer\":\"locality\",\"confidence\":1,\"country\":\"Germany\",\"label\":\"")
+                .append(name.replace("\"", "")).append(", Germany\"}}");
+    }
+
+    private static double roadMetres(JsonNode from, JsonNode to) {
+        double dx = (from.path(0).asDouble() - to.path(0).asDouble()) * 68_000;
+        double dy = (from.path(1).asDouble() - to.path(1).asDouble()) * 111_000;
+        return Math.round(Math.sqrt(dx * dx + dy * dy) * 1.3 * 100) / 100.0;
+    }
+
+    private static double[] coordinatesOf(String city) {
+        int hash = city.hashCode();
+        return new double[]{5.0 + Math.floorMod(hash, 10_000) / 1_000.0, 47.0 + Math.floorMod(hash >>> 8, 8_000) / 1_000.0};
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                    return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "";
+    }
+
+    private static void drain(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sap.metrics;
+
+import com.sap.cache.CacheStats;
+import com.sap.exception.NetworkException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Co2MetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Co2Metrics metrics = new Co2Metrics(registry);
+
+    @Test
+    void testRecordTimesStagesAndCountsErrorsByType() {
+        assertEquals("ok", metrics.record(Co2Metrics.GEOCODE, () -> "ok"));
+        assertThrows(NetworkException.class, () -> metrics.record(Co2Metrics.GEOCODE, () -> {
+            throw new NetworkException("down", null);
+        }));
+
+        assertEquals(2, registry.get("co2.stage").tag("stage", "geocode").timer().count());
+        assertEquals(1, registry.get("co2.errors").tags("stage", "geocode", "exception", "NetworkException").counter().count());
+        assertEquals(0, registry.get("co2.inflight").tag("stage", "geocode").gauge().value());
+    }
+
+    @Test
+    void testInFlightGaugeDuringCall() {
+        double during = metrics.record(Co2Metrics.MATRIX,
+                () -> registry.get("co2.inflight").tag("stage", "matrix").gauge().value());
+
+        assertEquals(1, during);
+    }
+
+    @Test
+    void testSummaryListsStagesErrorsAndCaches() {
+        metrics.monitorCache("geocode", () -> new CacheStats(3, 1, 0, 0, 2));
+        metrics.recordTime(Co2Metrics.PARSE, 1_000_000);
+        metrics.recordError(Co2Metrics.MATRIX, new IllegalStateException());
+
+        String summary = metrics.summary();
+
+        assertEquals(0.75, registry.get("co2.cache.hit.ratio").tag("cache", "geocode").gauge().value());
+        assertTrue(summary.contains("parse"), summary);
+        assertTrue(summary.contains("matrix/IllegalStateException=1"), summary);
+        assertTrue(summary.contains("geocode cache: hits=3"), summary);
+    }
+}
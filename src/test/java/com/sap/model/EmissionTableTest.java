@@ -0,0 +1,58 @@
+package com.sap.model;
+
+import com.sap.utility.AppConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmissionTableTest {
+
+    @AfterEach
+    void restoreBuiltIn() {
+        TransportMethod.install(EmissionTable.builtIn());
+    }
+
+    @Test
+    void testResolvesEveryBuiltInMethod() {
+        EmissionTable table = EmissionTable.builtIn();
+
+        int ordinal = 0;
+        for (String method : table.methods()) {
+            assertEquals(ordinal, table.ordinal(method));
+            assertEquals(method, table.method(ordinal++));
+        }
+        assertEquals(142, table.rate(table.ordinal(AppConstants.DIESEL_CAR_SMALL)));
+        assertEquals(-1, table.ordinal("rocket"));
+        assertEquals(-1, table.ordinal(null));
+        assertNull(table.method(table.size()));
+        assertThrows(UnsupportedOperationException.class, () -> TransportMethod.getAllMethods().clear());
+    }
+
+    @Test
+    void testOverridesKeepOrdinalsAndAppendNewMethods() {
+        Map<String, Integer> rates = new LinkedHashMap<>();
+        rates.put(AppConstants.BUS_DEFAULT, 30);
+        rates.put("cargo-bike", 1);
+        EmissionTable table = EmissionTable.builtIn().withRates(rates);
+
+        assertEquals(EmissionTable.builtIn().ordinal(AppConstants.BUS_DEFAULT), table.ordinal(AppConstants.BUS_DEFAULT));
+        assertEquals(30, table.rate(table.ordinal(AppConstants.BUS_DEFAULT)));
+        assertEquals(EmissionTable.builtIn().size(), table.ordinal("cargo-bike"));
+        assertEquals(27, EmissionTable.builtIn().rate(EmissionTable.builtIn().ordinal(AppConstants.BUS_DEFAULT)));
+
+        assertThrows(IllegalArgumentException.class, () -> table.withRates(Map.of("walking", -1)));
+    }
+
+    @Test
+    void testInstallSwapsTable() {
+        TransportMethod.install(EmissionTable.builtIn().withRates(Map.of("cargo-bike", 1)));
+
+        assertTrue(TransportMethod.isValidMethod("cargo-bike"));
+        assertEquals(1, TransportMethod.getEmissionRate("cargo-bike"));
+        assertNull(TransportMethod.getEmissionRate("rocket"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.sap.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.client.OrsResilience;
+import com.sap.client.OrsThrottle;
+import com.sap.config.AppConfig;
+import com.sap.exception.InternalServerErrorException;
+import com.sap.exception.NetworkException;
+import com.sap.exception.UnknownTransportMethodException;
+import com.sap.load.LoadStack;
+import com.sap.load.OrsStubServer;
+import com.sap.metrics.Co2Metrics;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.service.impl.AsyncCo2CalculatorServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AsyncCo2CalculatorServiceImplTest {
+
+    private final AppConfig config = new AppConfig();
+    private ExecutorService executor;
+    private ExecutorService storeExecutor;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() {
+        executor = config.orsAsyncExecutor(2);
+        httpClient = config.orsAsyncHttpClient(executor, 5000);
+        storeExecutor = config.geocodeExecutor(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        storeExecutor.shutdownNow();
+    }
+
+    @Test
+    void testTripMatchesBlockingService() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4);
+             LoadStack blocking = new LoadStack(stub, 0, 4)) {
+            AsyncCo2CalculatorServiceImpl service = service(stub, 5000);
+
+            Co2CalculateResponseDTO trip = service.calculateAsync("Berlin", "Hamburg", "train-default").get(5, TimeUnit.SECONDS);
+
+            double expectedKm = blocking.service().getDistanceKm("Berlin", "Hamburg");
+            assertEquals(expectedKm, trip.getDistanceKm());
+            assertEquals(blocking.service().calculateCo2Kg(expectedKm, "train-default"), trip.getCo2Kg());
+            assertArrayEquals(blocking.service().getCoordinates("Berlin"), service.getCoordinatesAsync("Berlin").get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testManyTripsInFlightOnTwoThreads() throws Exception {
+        int trips = 500;
+        try (OrsStubServer stub = new OrsStubServer(20, 0, 0, 64)) {
+            AsyncCo2CalculatorServiceImpl service = service(stub, 30000);
+
+            List<CompletableFuture<Double>> results = new ArrayList<>();
+            for (int i = 0; i < trips; i++) {
+                results.add(service.getDistanceKmAsync("Start " + i, "End " + i));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+            for (CompletableFuture<Double> result : results) {
+                assertTrue(result.join() > 0);
+            }
+            assertEquals(2L * trips, stub.geocodeRequests());
+            assertEquals(trips, stub.matrixRequests());
+        }
+    }
+
+    @Test
+    void testProviderErrorsMapToApiExceptions() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(0, 1.0, 0, 4)) {
+            AsyncCo2CalculatorServiceImpl service = service(stub, 5000);
+
+            CompletableFuture<Double> trip = service.getDistanceKmAsync("Berlin", "Hamburg");
+
+            CompletionException e = assertThrows(CompletionException.class, trip::join);
+            assertInstanceOf(InternalServerErrorException.class, e.getCause());
+            assertTrue(e.getCause().getMessage().contains("503"), e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void testUnknownTransportMethodFailsWithoutProviderCalls() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4)) {
+            CompletableFuture<Co2CalculateResponseDTO> trip = service(stub, 5000).calculateAsync("Berlin", "Hamburg", "rocket");
+
+            CompletionException e = assertThrows(CompletionException.class, trip::join);
+            assertInstanceOf(UnknownTransportMethodException.class, e.getCause());
+            assertEquals(0, stub.geocodeRequests());
+        }
+    }
+
+    @Test
+    void testDeadlineFailsTheTripAndCancelsItsLookups() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(2000, 0, 0, 4)) {
+            AsyncCo2CalculatorServiceImpl service = service(stub, 200);
+
+            long start = System.nanoTime();
+            CompletionException e = assertThrows(CompletionException.class, () -> service.getDistanceKmAsync("Berlin", "Hamburg").join());
+
+            assertInstanceOf(NetworkException.class, e.getCause());
+            assertEquals("Timed out after 200 ms while calculating the trip from Berlin to Hamburg", e.getCause().getMessage());
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500));
+            assertEquals(0, service.getGeocodeFlight().inFlight());
+        }
+    }
+
+    @Test
+    void testCancellingTheTripCancelsItsLookups() throws Exception {
+        try (OrsStubServer stub = new OrsStubServer(2000, 0, 0, 4)) {
+            AsyncCo2CalculatorServiceImpl service = service(stub, 5000);
+
+            CompletableFuture<Double> trip = service.getDistanceKmAsync("Berlin", "Hamburg");
+            assertEquals(2, service.getGeocodeFlight().inFlight());
+            trip.cancel(true);
+
+            assertTrue(trip.isCancelled());
+            assertEquals(0, service.getGeocodeFlight().inFlight());
+        }
+    }
+
+    @Test
+    void testStoreAndGazetteerRunOffTheCompletionThreads(@TempDir Path storeDir) throws Exception {
+        Gazetteer gazetteer = mock(Gazetteer.class);
+        List<String> gazetteerThreads = new CopyOnWriteArrayList<>();
+        when(gazetteer.find(anyString())).thenAnswer(invocation -> {
+            gazetteerThreads.add(Thread.currentThread().getName());
+            return null;
+        });
+        GeocodeStore store = new GeocodeStore(true, storeDir.toString(), 1000);
+
+        try (OrsStubServer stub = new OrsStubServer(0, 0, 0, 4)) {
+            AsyncCo2CalculatorServiceImpl service = service(stub, 5000, store, gazetteer);
+
+            assertEquals(2, service.getCoordinatesAsync("Berlin").get(5, TimeUnit.SECONDS).length);
+
+            assertEquals(1, gazetteerThreads.size());
+            assertTrue(gazetteerThreads.get(0).startsWith("geocode-"), gazetteerThreads.get(0));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.size() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, store.size());
+        }
+    }
+
+    private AsyncCo2CalculatorServiceImpl service(OrsStubServer stub, long tripTimeoutMs) {
+        return service(stub, tripTimeoutMs, GeocodeStore.disabled(), Gazetteer.disabled());
+    }
+
+    private AsyncCo2CalculatorServiceImpl service(OrsStubServer stub, long tripTimeoutMs, GeocodeStore store, Gazetteer gazetteer) {
+        return new AsyncCo2CalculatorServiceImpl(httpClient, new ObjectMapper(), "token", stub.geocodeUrl(), stub.matrixUrl(),
+                config.messageSource(), new GeocodeCache(1000, 1440, 60), store, new DistanceCache(1000, 1440, true),
+                15000, tripTimeoutMs, Co2Metrics.standalone(), OrsThrottle.unlimited(), OrsResilience.disabled(),
+                gazetteer, DistanceEstimator.disabled(), storeExecutor);
+    }
+}
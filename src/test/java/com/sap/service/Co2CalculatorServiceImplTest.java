@@ -1,11 +1,26 @@
 package com.sap.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.cache.DistanceCache;
+import com.sap.cache.Gazetteer;
+import com.sap.cache.GeocodeCache;
+import com.sap.cache.GeocodeStore;
+import com.sap.client.OrsResilience;
+import com.sap.client.OrsThrottle;
+import com.sap.exception.BadRequestException;
+import com.sap.exception.CircuitOpenException;
 import com.sap.exception.CityNotFoundException;
 import com.sap.exception.ForbiddenException;
 import com.sap.exception.InternalServerErrorException;
 import com.sap.exception.NetworkException;
+import com.sap.exception.TooManyRequestsException;
 import com.sap.exception.UnknownTransportMethodException;
+import com.sap.metrics.Co2Metrics;
+import com.sap.model.DistanceMatrix;
+import com.sap.model.TransportMethod;
+import com.sap.model.dto.Co2CalculateResponseDTO;
+import com.sap.model.dto.ItineraryResponseDTO;
 import com.sap.service.impl.Co2CalculatorServiceImpl;
 import com.sap.utility.AppConstants;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,20 +30,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.MessageSource;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -91,6 +116,50 @@ class Co2CalculatorServiceImplTest {
                 () -> service.calculateCo2Kg(10, AppConstants.UNKNOWN_TRANSPORT));
     }
 
+    @Test
+    void testStandaloneInstancesShareOneGeocodePool() {
+        Co2CalculatorServiceImpl other = new Co2CalculatorServiceImpl(restTemplate, mapper, token, geoApi, matrixApi, messageSource);
+
+        assertSame(service.getGeocodeExecutor(), other.getGeocodeExecutor());
+    }
+
+    @Test
+    void testCalculateCo2Kg_bulkBitIdenticalToScalar() {
+        int size = 300_000;
+        Random random = new Random(7);
+        double[] distances = new double[size];
+        int[] ordinals = new int[size];
+        for (int i = 0; i < size; i++) {
+            distances[i] = random.nextDouble() * 2000;
+            ordinals[i] = random.nextInt(TransportMethod.getAllMethods().size());
+        }
+        distances[0] = 0.35;
+        distances[1] = 1234.5678;
+
+        double[] out = new double[size];
+        service.calculateCo2Kg(distances, ordinals, out);
+
+        for (int i = 0; i < size; i++) {
+            double scalar = service.calculateCo2Kg(distances[i], TransportMethod.method(ordinals[i]));
+            assertEquals(Double.doubleToRawLongBits(scalar), Double.doubleToRawLongBits(out[i]), "index " + i);
+        }
+    }
+
+    @Test
+    void testCalculateCo2Kg_bulkRejectsBadInput() {
+        int bus = TransportMethod.ordinal(AppConstants.BUS_DEFAULT);
+        assertEquals(-1, TransportMethod.ordinal(AppConstants.UNKNOWN_TRANSPORT));
+
+        double[] out = {-1, -1};
+        assertThrows(UnknownTransportMethodException.class,
+                () -> service.calculateCo2Kg(new double[]{10, 20}, new int[]{bus, 99}, out));
+        assertArrayEquals(new double[]{-1, -1}, out);
+        assertThrows(UnknownTransportMethodException.class,
+                () -> service.calculateCo2Kg(new double[]{10}, new int[]{-1}, new double[1]));
+        assertThrows(BadRequestException.class,
+                () -> service.calculateCo2Kg(new double[]{10, 20}, new int[]{bus}, new double[2]));
+    }
+
     @Test
     void testGetCoordinates_success() throws Exception {
         String city = "Berlin";
@@ -100,8 +169,8 @@ class Co2CalculatorServiceImplTest {
                 }
                 """;
 
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                .thenReturn(ResponseEntity.ok(geoBody));
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(geoBody));
 
         double[] coords = service.getCoordinates(city);
 
@@ -110,16 +179,67 @@ class Co2CalculatorServiceImplTest {
         assertEquals(52.5, coords[1]);
     }
 
+    @Test
+    void testGetCoordinates_cachedAfterFirstLookup() {
+        String geoBody = """
+                {
+                  "features":[{"geometry":{"coordinates":[13.4,52.5]}}]
+                }
+                """;
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(geoBody));
+
+        service.getCoordinates("Berlin");
+        double[] coords = service.getCoordinates(" berlin ");
+
+        assertEquals(13.4, coords[0]);
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testGetCoordinates_cityNotFoundCached() {
+        String geoBody = "{\"features\":[]}";
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(geoBody));
+
+        assertThrows(CityNotFoundException.class, () -> service.getCoordinates("UnknownCity"));
+        assertThrows(CityNotFoundException.class, () -> service.getCoordinates("UnknownCity"));
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+    }
+
     @Test
     void testGetCoordinates_cityNotFound() {
         String geoBody = "{\"features\":[]}";
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                .thenReturn(ResponseEntity.ok(geoBody));
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(geoBody));
 
         assertThrows(CityNotFoundException.class,
                 () -> service.getCoordinates("UnknownCity"));
     }
 
+    @Test
+    void testGetCoordinates_onlyExactGazetteerMatchesCached() {
+        Gazetteer gazetteer = mock(Gazetteer.class);
+        when(gazetteer.find("Berlin")).thenReturn(new Gazetteer.Match("berlin", new double[]{13.4, 52.5},
+                3_426_354, Gazetteer.MatchType.EXACT));
+        when(gazetteer.find("Frankfurt")).thenReturn(new Gazetteer.Match("frankfurt am main", new double[]{8.7, 50.1},
+                650_000, Gazetteer.MatchType.PREFIX));
+        GeocodeCache geocodeCache = new GeocodeCache(10, 60, 1);
+        Co2CalculatorServiceImpl offlineService = new Co2CalculatorServiceImpl(
+                restTemplate, mapper, token, geoApi, matrixApi, messageSource,
+                geocodeCache, GeocodeStore.disabled(), new DistanceCache(10, 60, true),
+                50, 3500, Executors.newSingleThreadExecutor(), 1000, Co2Metrics.standalone(), OrsThrottle.unlimited(),
+                OrsResilience.disabled(), gazetteer, DistanceEstimator.disabled());
+
+        assertEquals(13.4, offlineService.getCoordinates("Berlin")[0]);
+        assertEquals(8.7, offlineService.getCoordinates("Frankfurt")[0]);
+
+        assertNotNull(geocodeCache.peek("Berlin"));
+        assertNull(geocodeCache.peek("Frankfurt"));
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void testGetDistanceKm_success() throws Exception {
         double[] coords = new double[]{13.4, 52.5};
@@ -134,13 +254,195 @@ class Co2CalculatorServiceImplTest {
                 }
                 """;
 
-        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
-                .thenReturn(ResponseEntity.ok(matrixBody));
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(matrixBody));
 
         double distance = spyService.getDistanceKm("Berlin", "Munich");
         assertEquals(36.0, distance, 0.01); // 36000 meters = 36 km
     }
 
+    @Test
+    void testGetDistanceKm_reverseServedFromCache() throws Exception {
+        Co2CalculatorServiceImpl spyService = spy(service);
+
+        doReturn(new double[]{13.4, 52.5}).when(spyService).getCoordinates("Berlin");
+        doReturn(new double[]{11.5, 48.1}).when(spyService).getCoordinates("Munich");
+
+        String matrixBody = """
+                {
+                  "distances": [[0, 585000], [585000, 0]]
+                }
+                """;
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(matrixBody));
+
+        assertEquals(585.0, spyService.getDistanceKm("Berlin", "Munich"), 0.01);
+        assertEquals(585.0, spyService.getDistanceKm("Munich", "Berlin"), 0.01);
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testGetDistanceMatrixKm_tiledWithinLimits() {
+        Co2CalculatorServiceImpl tiledService = new Co2CalculatorServiceImpl(
+                restTemplate, mapper, token, geoApi, matrixApi, messageSource,
+                new GeocodeCache(10, 60, 1), GeocodeStore.disabled(), new DistanceCache(10, 60, true),
+                4, 3500, Executors.newSingleThreadExecutor(), 1000, Co2Metrics.standalone(), OrsThrottle.unlimited(), OrsResilience.disabled(),
+                Gazetteer.disabled(), DistanceEstimator.disabled());
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    MockClientHttpRequest httpRequest = new MockClientHttpRequest();
+                    ((RequestCallback) invocation.getArgument(2)).doWithRequest(httpRequest);
+                    JsonNode request = mapper.readTree(httpRequest.getBodyAsBytes());
+                    assertTrue(request.get("locations").size() <= 4);
+                    StringBuilder rows = new StringBuilder();
+                    for (JsonNode source : request.get("sources")) {
+                        rows.append(rows.length() == 0 ? "[" : ",[");
+                        int i = 0;
+                        for (JsonNode destination : request.get("destinations")) {
+                            double from = request.get("locations").get(source.asInt()).get(0).asDouble();
+                            double to = request.get("locations").get(destination.asInt()).get(0).asDouble();
+                            rows.append(i++ == 0 ? "" : ",").append((from * 10 + to) * 1000);
+                        }
+                        rows.append("]");
+                    }
+                    return extract(invocation.getArgument(3), "{\"distances\":[" + rows + "]}");
+                });
+
+        List<double[]> points = List.of(new double[]{1, 0}, new double[]{2, 0}, new double[]{3, 0});
+        double[][] matrix = tiledService.getDistanceMatrixKm(points, points);
+
+        assertEquals(12.0, matrix[0][1]);
+        assertEquals(33.0, matrix[2][2]);
+        assertEquals(31.0, matrix[2][0]);
+        verify(restTemplate, times(4)).execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testGetCo2Matrix_singleRequestThenCached() {
+        Co2CalculatorServiceImpl spyService = spy(service);
+
+        doReturn(new double[]{13.4, 52.5}).when(spyService).getCoordinates("Berlin");
+        doReturn(new double[]{11.5, 48.1}).when(spyService).getCoordinates("Munich");
+        doReturn(new double[]{9.99, 53.55}).when(spyService).getCoordinates("Hamburg");
+
+        String matrixBody = """
+                {
+                  "distances": [[289000, 0], [775000, 585000]]
+                }
+                """;
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(matrixBody));
+
+        DistanceMatrix matrix = spyService.getCo2Matrix(
+                List.of("Berlin", "Munich"), List.of("Hamburg", "Berlin"), AppConstants.DIESEL_CAR_SMALL);
+
+        assertEquals(775.0, matrix.getDistancesKm()[1][0]);
+        assertEquals(spyService.calculateCo2Kg(585.0, AppConstants.DIESEL_CAR_SMALL), matrix.getCo2Kg()[1][1]);
+
+        DistanceMatrix reversed = spyService.getDistanceMatrix(List.of("Hamburg"), List.of("Munich"));
+
+        assertEquals(775.0, reversed.getDistancesKm()[0][0]);
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testCalculateItinerary_roundTripInOneMatrixRequest() {
+        Co2CalculatorServiceImpl spyService = spy(service);
+
+        doReturn(new double[]{1, 0}).when(spyService).getCoordinates("Berlin");
+        doReturn(new double[]{2, 0}).when(spyService).getCoordinates("Hamburg");
+        doReturn(new double[]{3, 0}).when(spyService).getCoordinates("Munich");
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    MockClientHttpRequest httpRequest = new MockClientHttpRequest();
+                    ((RequestCallback) invocation.getArgument(2)).doWithRequest(httpRequest);
+                    JsonNode request = mapper.readTree(httpRequest.getBodyAsBytes());
+                    assertEquals(3, request.get("locations").size());
+                    StringBuilder rows = new StringBuilder();
+                    for (JsonNode source : request.get("sources")) {
+                        rows.append(rows.length() == 0 ? "[" : ",[");
+                        int i = 0;
+                        for (JsonNode destination : request.get("destinations")) {
+                            double from = request.get("locations").get(source.asInt()).get(0).asDouble();
+                            double to = request.get("locations").get(destination.asInt()).get(0).asDouble();
+                            rows.append(i++ == 0 ? "" : ",").append((from * 10 + to) * 1000);
+                        }
+                        rows.append("]");
+                    }
+                    return extract(invocation.getArgument(3), "{\"distances\":[" + rows + "]}");
+                });
+
+        ItineraryResponseDTO itinerary = spyService.calculateItinerary(List.of("Berlin", "Hamburg", "Munich", "berlin"),
+                List.of(AppConstants.TRAIN_DEFAULT, AppConstants.BUS_DEFAULT, AppConstants.DIESEL_CAR_SMALL));
+
+        assertEquals(3, itinerary.getLegs().size());
+        assertEquals(12.0, itinerary.getLegs().get(0).getDistanceKm());
+        assertEquals(23.0, itinerary.getLegs().get(1).getDistanceKm());
+        assertEquals(31.0, itinerary.getLegs().get(2).getDistanceKm());
+        assertEquals(AppConstants.BUS_DEFAULT, itinerary.getLegs().get(1).getTransportationMethod());
+        assertEquals(spyService.calculateCo2Kg(31.0, AppConstants.DIESEL_CAR_SMALL), itinerary.getLegs().get(2).getCo2Kg());
+        assertEquals(66.0, itinerary.getDistanceKm());
+        assertEquals(itinerary.getLegs().stream().mapToDouble(Co2CalculateResponseDTO::getCo2Kg).sum(), itinerary.getCo2Kg());
+        verify(spyService, times(1)).getCoordinates("Berlin");
+
+        ItineraryResponseDTO reversed = spyService.calculateItinerary(List.of("Hamburg", "Hamburg", "Berlin"), List.of(AppConstants.BUS_DEFAULT));
+
+        assertEquals(0.0, reversed.getLegs().get(0).getDistanceKm());
+        assertEquals(12.0, reversed.getLegs().get(1).getDistanceKm());
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testCalculateItinerary_invalidInputRejectedBeforeLookups() {
+        assertThrows(BadRequestException.class,
+                () -> service.calculateItinerary(List.of("Berlin"), List.of(AppConstants.BUS_DEFAULT)));
+        assertThrows(BadRequestException.class, () -> service.calculateItinerary(List.of("Berlin", "Hamburg", "Munich"),
+                List.of(AppConstants.BUS_DEFAULT, AppConstants.BUS_DEFAULT, AppConstants.BUS_DEFAULT)));
+        assertThrows(UnknownTransportMethodException.class, () -> service.calculateItinerary(List.of("Berlin", "Hamburg", "Munich"),
+                List.of(AppConstants.BUS_DEFAULT, AppConstants.UNKNOWN_TRANSPORT)));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testGetDistanceKm_geocodesConcurrently() throws Exception {
+        Co2CalculatorServiceImpl spyService = spy(service);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        doAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "lookups did not overlap");
+            return new double[]{13.4, 52.5};
+        }).when(spyService).getCoordinates(anyString());
+
+        String matrixBody = """
+                {
+                  "distances": [[0, 36000], [36000, 0]]
+                }
+                """;
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(matrixBody));
+
+        assertEquals(36.0, spyService.getDistanceKm("Berlin", "Munich"), 0.01);
+    }
+
+    @Test
+    void testGetDistanceKm_firstGeocodeFailurePropagated() {
+        Co2CalculatorServiceImpl spyService = spy(service);
+
+        // The Berlin lookup may be cancelled before it starts once Munich has failed.
+        lenient().doReturn(new double[]{13.4, 52.5}).when(spyService).getCoordinates("Berlin");
+        doThrow(new ForbiddenException("Access denied")).when(spyService).getCoordinates("Munich");
+
+        ForbiddenException exception = assertThrows(ForbiddenException.class,
+                () -> spyService.getDistanceKm("Berlin", "Munich"));
+        assertEquals("Access denied", exception.getMessage());
+    }
+
     @Test
     void testGetDistanceKm_matrixForbidden() throws Exception {
         double[] coords = new double[]{13.4, 52.5};
@@ -152,12 +454,33 @@ class Co2CalculatorServiceImplTest {
         RestClientResponseException ex = new RestClientResponseException(
                 "Forbidden", 403, "Forbidden", new HttpHeaders(), null, StandardCharsets.UTF_8);
 
-        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
                 .thenThrow(ex);
 
         assertThrows(ForbiddenException.class, () -> spyService.getDistanceKm("Berlin", "Munich"));
     }
 
+    @Test
+    void testGetDistanceKm_matrixRateLimited() throws Exception {
+        double[] coords = new double[]{13.4, 52.5};
+        Co2CalculatorServiceImpl spyService = spy(service);
+
+        doReturn(coords).when(spyService).getCoordinates("Berlin");
+        doReturn(coords).when(spyService).getCoordinates("Munich");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "7");
+        RestClientResponseException ex = new RestClientResponseException(
+                "Too Many Requests", 429, "Too Many Requests", headers, null, StandardCharsets.UTF_8);
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(ex);
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> spyService.getDistanceKm("Berlin", "Munich"));
+        assertEquals(7000, exception.getRetryAfterMillis());
+    }
+
     @Test
     void testGetDistanceKm_networkException() throws Exception {
         double[] coords = new double[]{13.4, 52.5};
@@ -166,12 +489,70 @@ class Co2CalculatorServiceImplTest {
         doReturn(coords).when(spyService).getCoordinates("Berlin");
         doReturn(coords).when(spyService).getCoordinates("Munich");
 
-        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
                 .thenThrow(new ResourceAccessException("Connection refused"));
 
         assertThrows(NetworkException.class, () -> spyService.getDistanceKm("Berlin", "Munich"));
     }
 
+    @Test
+    void testGetCoordinates_staleServedWhileCircuitOpen() throws Exception {
+        GeocodeCache geocodeCache = spy(new GeocodeCache(10, 60, 1));
+        Co2CalculatorServiceImpl resilientService = new Co2CalculatorServiceImpl(
+                restTemplate, mapper, token, geoApi, matrixApi, messageSource,
+                geocodeCache, GeocodeStore.disabled(), new DistanceCache(10, 60, true),
+                50, 3500, Executors.newSingleThreadExecutor(), 1000, Co2Metrics.standalone(), OrsThrottle.unlimited(),
+                new OrsResilience(1, 0, 0, false, 0, 1, 60_000, true, Co2Metrics.standalone(), messageSource),
+                Gazetteer.disabled(), DistanceEstimator.disabled());
+
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith("{\"features\":[{\"geometry\":{\"coordinates\":[13.4,52.5]}}]}"))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertEquals(13.4, resilientService.getCoordinates("Berlin")[0]);
+        doReturn(null).when(geocodeCache).get("Berlin");
+        assertThrows(NetworkException.class, () -> resilientService.getCoordinates("Berlin"));
+
+        assertEquals(52.5, resilientService.getCoordinates("Berlin")[1]);
+        assertThrows(CircuitOpenException.class, () -> resilientService.getCoordinates("Hamburg"));
+        verify(restTemplate, times(2)).execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testGetDistanceKm_estimatedWhenMatrixFails() {
+        Co2CalculatorServiceImpl fallbackService = spy(new Co2CalculatorServiceImpl(
+                restTemplate, mapper, token, geoApi, matrixApi, messageSource,
+                new GeocodeCache(10, 60, 1), GeocodeStore.disabled(), new DistanceCache(10, 60, true),
+                50, 3500, Executors.newSingleThreadExecutor(), 1000, Co2Metrics.standalone(), OrsThrottle.unlimited(),
+                OrsResilience.disabled(), Gazetteer.disabled(), new DistanceEstimator(false, true, 1.5, 10, 5)));
+
+        doReturn(new double[]{13.40495, 52.52001}).when(fallbackService).getCoordinates("Berlin");
+        doReturn(new double[]{9.99368, 53.55108}).when(fallbackService).getCoordinates("Hamburg");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertEquals(255.3 * 1.5, fallbackService.getDistanceKm("Berlin", "Hamburg"), 1.0);
+        assertNull(fallbackService.getDistanceCache().get(new double[]{13.40495, 52.52001}, new double[]{9.99368, 53.55108}));
+    }
+
+    @Test
+    void testGetDistanceMatrix_estimatesNotCachedInEstimateOnlyMode() {
+        Co2CalculatorServiceImpl estimatingService = spy(new Co2CalculatorServiceImpl(
+                restTemplate, mapper, token, geoApi, matrixApi, messageSource,
+                new GeocodeCache(10, 60, 1), GeocodeStore.disabled(), new DistanceCache(10, 60, true),
+                50, 3500, Executors.newSingleThreadExecutor(), 1000, Co2Metrics.standalone(), OrsThrottle.unlimited(),
+                OrsResilience.disabled(), Gazetteer.disabled(), new DistanceEstimator(true, false, 1.5, 10, 5)));
+
+        doReturn(new double[]{13.40495, 52.52001}).when(estimatingService).getCoordinates("Berlin");
+        doReturn(new double[]{9.99368, 53.55108}).when(estimatingService).getCoordinates("Hamburg");
+
+        DistanceMatrix matrix = estimatingService.getDistanceMatrix(List.of("Berlin"), List.of("Hamburg"));
+
+        assertEquals(255.3 * 1.5, matrix.getDistancesKm()[0][0], 1.0);
+        assertNull(estimatingService.getDistanceCache().get(new double[]{13.40495, 52.52001}, new double[]{9.99368, 53.55108}));
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void testGetDistanceKm_matrixInvalidResponse() throws Exception {
         double[] coords = new double[]{13.4, 52.5};
@@ -182,9 +563,17 @@ class Co2CalculatorServiceImplTest {
 
         String matrixBody = "{\"distances\": []}";
 
-        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
-                .thenReturn(ResponseEntity.ok(matrixBody));
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(matrixBody));
 
         assertThrows(InternalServerErrorException.class, () -> spyService.getDistanceKm("Berlin", "Ahmedabad"));
     }
-}
\ No newline at end of file
+
+    private static Answer<Object> respondWith(String body) {
+        return invocation -> extract(invocation.getArgument(3), body);
+    }
+
+    private static Object extract(ResponseExtractor<?> extractor, String body) throws IOException {
+        return extractor.extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+    }
+}
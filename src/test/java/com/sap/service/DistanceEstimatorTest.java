@@ -0,0 +1,52 @@
+package com.sap.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceEstimatorTest {
+
+    private static final double[] BERLIN = {13.40495, 52.52001};
+    private static final double[] HAMBURG = {9.99368, 53.55108};
+    private static final double[] MUNICH = {11.57549, 48.13743};
+
+    @Test
+    void testHaversine() {
+        assertEquals(255.3, DistanceEstimator.haversineKm(BERLIN[0], BERLIN[1], HAMBURG[0], HAMBURG[1]), 0.5);
+        assertEquals(0.0, DistanceEstimator.haversineKm(BERLIN[0], BERLIN[1], BERLIN[0], BERLIN[1]));
+        assertEquals(Math.PI * 6371.0088, DistanceEstimator.haversineKm(0, 0, 180, 0), 1e-6);
+    }
+
+    @Test
+    void testCalibratesRegionAfterMinSamples() {
+        DistanceEstimator estimator = new DistanceEstimator(false, true, 1.3, 10, 2);
+        double greatCircle = DistanceEstimator.haversineKm(BERLIN[0], BERLIN[1], HAMBURG[0], HAMBURG[1]);
+
+        estimator.observe(BERLIN, HAMBURG, greatCircle * 1.1);
+        assertEquals(1.3, estimator.factor(BERLIN, HAMBURG));
+
+        estimator.observe(HAMBURG, BERLIN, greatCircle * 1.2);
+        assertEquals(1.15, estimator.factor(BERLIN, HAMBURG), 1e-9);
+        assertEquals(greatCircle * 1.15, estimator.estimateKm(BERLIN, HAMBURG), 1e-6);
+
+        estimator.observe(BERLIN, HAMBURG, greatCircle * 9);
+        assertEquals(1.15, estimator.factor(BERLIN, HAMBURG), 1e-9);
+        assertEquals(1.3, estimator.factor(new double[]{-74.0, 40.7}, new double[]{-71.1, 42.4}));
+    }
+
+    @Test
+    void testBulkMatchesSingleEstimates() {
+        DistanceEstimator estimator = new DistanceEstimator(true, false, 1.3, 10, 1);
+        estimator.observeAll(List.of(BERLIN), List.of(HAMBURG, MUNICH), new double[][]{{289.0, 585.0}});
+
+        double[] out = new double[2];
+        estimator.estimateKm(new double[]{BERLIN[0], MUNICH[0]}, new double[]{BERLIN[1], MUNICH[1]},
+                new double[]{HAMBURG[0], HAMBURG[0]}, new double[]{HAMBURG[1], HAMBURG[1]}, out);
+
+        assertEquals(estimator.estimateKm(BERLIN, HAMBURG), out[0]);
+        assertEquals(estimator.estimateKm(MUNICH, HAMBURG), out[1]);
+        assertEquals(289.0, out[0], 30.0);
+    }
+}